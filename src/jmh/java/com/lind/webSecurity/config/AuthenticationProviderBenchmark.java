@@ -0,0 +1,76 @@
+package com.lind.webSecurity.config;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * MyUserDetailService.loadUserByUsername以及LindAuthenticationProvider.authenticate的成功、密码错误、用户不存在三条路径.
+ * credentialTtl=0时凭证缓存立即过期，成功路径每次都执行BCrypt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthenticationProviderBenchmark {
+  @Param({"60", "0"})
+  public String credentialTtl;
+
+  private ConfigurableApplicationContext context;
+
+  private MyUserDetailService userDetailService;
+
+  private LindAuthenticationProvider provider;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start(
+        "lind.auth-cache.credential-ttl-seconds=" + credentialTtl);
+    userDetailService = context.getBean(MyUserDetailService.class);
+    provider = context.getBean(LindAuthenticationProvider.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public UserDetails loadUserByUsername() {
+    return userDetailService.loadUserByUsername("admin");
+  }
+
+  @Benchmark
+  public Authentication authenticateSuccess() {
+    return provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "123"));
+  }
+
+  @Benchmark
+  public Object authenticateBadPassword() {
+    try {
+      return provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "456"));
+    } catch (AuthenticationException ex) {
+      return ex;
+    }
+  }
+
+  @Benchmark
+  public Object authenticateUnknownUser() {
+    try {
+      return provider.authenticate(new UsernamePasswordAuthenticationToken("nobody", "123"));
+    } catch (AuthenticationException ex) {
+      return ex;
+    }
+  }
+}
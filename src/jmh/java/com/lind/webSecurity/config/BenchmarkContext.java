@@ -0,0 +1,26 @@
+package com.lind.webSecurity.config;
+
+import com.lind.webSecurity.WebSecurityApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试使用的应用上下文.
+ * 关闭BCrypt校准(固定强度10)和登录限流，避免不同机器和迭代之间的结果不可比较.
+ */
+final class BenchmarkContext {
+  private BenchmarkContext() {
+  }
+
+  static ConfigurableApplicationContext start(String... properties) {
+    return new SpringApplicationBuilder(WebSecurityApplication.class)
+        .properties(
+            "server.port=0",
+            "logging.level.root=WARN",
+            "lind.bcrypt.calibrate=false",
+            "lind.bcrypt.strength=10",
+            "lind.throttle.enabled=false")
+        .properties(properties)
+        .run();
+  }
+}
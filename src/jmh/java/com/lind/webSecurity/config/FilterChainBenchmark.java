@@ -0,0 +1,62 @@
+package com.lind.webSecurity.config;
+
+import java.util.concurrent.TimeUnit;
+import javax.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * 匿名请求经过springSecurityFilterChain的耗时，不包括servlet.
+ * fastPath=false时公开页面和静态资源走完整的链，用来对比lind.fast-path的效果.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterChainBenchmark {
+  @Param({"true", "false"})
+  public String fastPath;
+
+  private ConfigurableApplicationContext context;
+
+  private Filter springSecurityFilterChain;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start("lind.fast-path.enabled=" + fastPath);
+    springSecurityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public MockHttpServletResponse index() throws Exception {
+    return doFilter("/index");
+  }
+
+  @Benchmark
+  public MockHttpServletResponse staticAsset() throws Exception {
+    return doFilter("/css/site.css");
+  }
+
+  private MockHttpServletResponse doFilter(String path) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+    request.setServletPath(path);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    springSecurityFilterChain.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+}
@@ -0,0 +1,69 @@
+package com.lind.webSecurity.config;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * 成功和失败处理器的完整输出(包括审计和指标)，与JsonResponseBenchmark中的单纯序列化对比.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HandlerBenchmark {
+  private ConfigurableApplicationContext context;
+
+  private LindAuthenticationSuccessHandler successHandler;
+
+  private LindAuthenticationFailHandler failHandler;
+
+  private MockHttpServletRequest request;
+
+  private Authentication authentication;
+
+  private BadCredentialsException exception;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start();
+    successHandler = context.getBean(LindAuthenticationSuccessHandler.class);
+    failHandler = context.getBean(LindAuthenticationFailHandler.class);
+    request = new MockHttpServletRequest("GET", "/login");
+    request.setParameter("username", "admin");
+    authentication = new UsernamePasswordAuthenticationToken("admin", null,
+        AuthorityUtils.commaSeparatedStringToAuthorityList("read,ROLE_ADMIN"));
+    exception = new BadCredentialsException("Bad credentials");
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public MockHttpServletResponse success() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    successHandler.onAuthenticationSuccess(request, response, authentication);
+    return response;
+  }
+
+  @Benchmark
+  public MockHttpServletResponse failure() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    failHandler.onAuthenticationFailure(request, response, exception);
+    return response;
+  }
+}
@@ -0,0 +1,77 @@
+package com.lind.webSecurity.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * 对比处理器原来的写法(ImmutableMap+writeValueAsString+getWriter)和LindJsonResponseWriter.
+ * 运行：gradlew jmh，结果在build/reports/jmh下
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonResponseBenchmark {
+  private ObjectMapper objectMapper;
+
+  private LindJsonResponseWriter writer;
+
+  private BadCredentialsException exception;
+
+  @Setup
+  public void setup() throws Exception {
+    objectMapper = new ObjectMapper();
+    writer = new LindJsonResponseWriter();
+    writer.objectMapper = objectMapper;
+    writer.init();
+    exception = new BadCredentialsException("Bad credentials");
+  }
+
+  @Benchmark
+  public MockHttpServletResponse successLegacy() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setCharacterEncoding("UTF-8");
+    response.setContentType("application/json; charset=utf-8");
+    String jsonMessage = objectMapper.writeValueAsString(ImmutableMap.of("message", "success"));
+    response.getWriter().append(jsonMessage);
+    return response;
+  }
+
+  @Benchmark
+  public MockHttpServletResponse successPreSerialized() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    writer.write(response, HttpServletResponse.SC_OK, writer.successBody());
+    return response;
+  }
+
+  @Benchmark
+  public MockHttpServletResponse failureLegacy() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    response.setCharacterEncoding("UTF-8");
+    response.setContentType("application/json; charset=utf-8");
+    String jsonMessage = objectMapper.writeValueAsString(
+        ImmutableMap.of("message", exception.getMessage()));
+    response.getWriter().append(jsonMessage);
+    return response;
+  }
+
+  @Benchmark
+  public MockHttpServletResponse failureCached() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    writer.write(response, HttpServletResponse.SC_UNAUTHORIZED, writer.failureBody(exception));
+    return response;
+  }
+}
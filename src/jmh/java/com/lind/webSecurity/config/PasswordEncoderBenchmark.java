@@ -0,0 +1,42 @@
+package com.lind.webSecurity.config;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 不同强度下BCrypt编码和校验的耗时，用来核对LindPasswordEncoder.calibrate的估算.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordEncoderBenchmark {
+  @Param({"4", "8", "10", "12"})
+  public int strength;
+
+  private LindPasswordEncoder encoder;
+
+  private String encoded;
+
+  @Setup
+  public void setup() {
+    encoder = new LindPasswordEncoder(strength);
+    encoded = encoder.encode("123");
+  }
+
+  @Benchmark
+  public String encode() {
+    return encoder.encode("123");
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return encoder.matches("123", encoded);
+  }
+}
@@ -0,0 +1,61 @@
+package com.lind.webSecurity.load;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 压测基线.
+ * key为场景名加指标：throughput是下限(请求/秒)，p50/p99/p999(毫秒)和error-rate是上限.
+ * 基线中没有的key不做比较，tolerance为允许的相对偏移.
+ */
+final class LoadBaseline {
+  private final Properties thresholds;
+  private final double tolerance;
+
+  private LoadBaseline(Properties thresholds, double tolerance) {
+    this.thresholds = thresholds;
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * location为空时读取classpath下的load-baseline.properties.
+   */
+  static LoadBaseline load(String location, double tolerance) throws IOException {
+    Properties properties = new Properties();
+    try (InputStream in = location.isEmpty()
+        ? LoadBaseline.class.getResourceAsStream("/load-baseline.properties")
+        : new FileInputStream(new File(location))) {
+      if (in != null) {
+        properties.load(in);
+      }
+    }
+    return new LoadBaseline(properties, tolerance);
+  }
+
+  /**
+   * 返回超出基线的指标描述，为空表示通过.
+   */
+  List<String> check(Properties results) {
+    List<String> violations = new ArrayList<>();
+    for (String key : thresholds.stringPropertyNames()) {
+      String actual = results.getProperty(key);
+      if (actual == null) {
+        continue;
+      }
+      double limit = Double.parseDouble(thresholds.getProperty(key));
+      double value = Double.parseDouble(actual);
+      boolean ok = key.endsWith(".throughput")
+          ? value >= limit * (1 - tolerance)
+          : value <= limit * (1 + tolerance);
+      if (!ok) {
+        violations.add(String.format("%s=%.3f (baseline %.3f)", key, value, limit));
+      }
+    }
+    return violations;
+  }
+}
@@ -0,0 +1,55 @@
+package com.lind.webSecurity.load;
+
+import java.util.Arrays;
+
+/**
+ * 单个场景的延迟和错误记录.
+ * 每个压测线程持有自己的实例，结束后再合并，记录时不需要同步.
+ */
+final class LoadRecorder {
+  private long[] latencies = new long[1024];
+  private int size;
+  private long errors;
+
+  void record(long nanos, boolean ok) {
+    if (size == latencies.length) {
+      latencies = Arrays.copyOf(latencies, size * 2);
+    }
+    latencies[size++] = nanos;
+    if (!ok) {
+      errors++;
+    }
+  }
+
+  void merge(LoadRecorder other) {
+    if (size + other.size > latencies.length) {
+      latencies = Arrays.copyOf(latencies, size + other.size);
+    }
+    System.arraycopy(other.latencies, 0, latencies, size, other.size);
+    size += other.size;
+    errors += other.errors;
+  }
+
+  long count() {
+    return size;
+  }
+
+  double errorRate() {
+    return size == 0 ? 0 : (double) errors / size;
+  }
+
+  /**
+   * 百分位延迟(毫秒)，调用前需要先sort.
+   */
+  double percentileMillis(double percentile) {
+    if (size == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile * size) - 1;
+    return latencies[Math.max(0, Math.min(index, size - 1))] / 1_000_000d;
+  }
+
+  void sort() {
+    Arrays.sort(latencies, 0, size);
+  }
+}
@@ -0,0 +1,27 @@
+package com.lind.webSecurity.load;
+
+/**
+ * 压测中的请求类型.
+ * 登录走完整的filter->provider->handler链路，用户名和密码由LoginLoadTest每次随机生成；
+ * 其余场景覆盖session认证、按路由授权和匿名访问.
+ */
+enum LoadScenario {
+  LOGIN("/login"),
+  READ("/read"),
+  ADMIN("/admin/product"),
+  INDEX("/index");
+
+  private final String path;
+
+  LoadScenario(String path) {
+    this.path = path;
+  }
+
+  String getPath() {
+    return path;
+  }
+
+  String key() {
+    return name().toLowerCase();
+  }
+}
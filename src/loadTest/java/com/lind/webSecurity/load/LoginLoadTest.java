@@ -0,0 +1,267 @@
+package com.lind.webSecurity.load;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * 整条filter链的端到端压测.
+ * 在随机端口启动内嵌tomcat，按load.mix的权重混合发送登录、session认证的/read和/admin/product、匿名/index请求.
+ * 输出每个场景的吞吐量、p50/p99/p999延迟和错误率，超出load-baseline.properties时测试失败.
+ * 登录从load.users个用户中随机选择，其中load.login-failure-ratio比例使用每次都不同的错误密码，
+ * 凭证缓存和并发合并都命中不了，每次都执行BCrypt；成功登录只有同一用户在凭证缓存有效期
+ * (lind.auth-cache.credential-ttl-seconds)内再次被选中时才命中缓存，用户数远大于登录请求数/秒×有效期时可以忽略.
+ * 运行：gradlew loadTest -Dload.concurrency=32 -Dload.duration-seconds=60
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "logging.level.root=WARN",
+    "logging.level.com.lind.webSecurity.load=INFO",
+    "lind.bcrypt.calibrate=false",
+    "lind.bcrypt.strength=10",
+    "lind.throttle.enabled=false"})
+public class LoginLoadTest {
+  private static final Logger log = LoggerFactory.getLogger(LoginLoadTest.class);
+  private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+  private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 30);
+  private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+  private static final String MIX = System.getProperty("load.mix", "login:1,read:4,admin:2,index:3");
+  private static final String BASELINE = System.getProperty("load.baseline", "");
+  private static final double TOLERANCE =
+      Double.parseDouble(System.getProperty("load.tolerance", "0.2"));
+  private static final String REPORT_DIR = System.getProperty("load.report-dir", "build/reports/loadtest");
+  private static final int USERS = Integer.getInteger("load.users", 1000);
+  private static final double LOGIN_FAILURE_RATIO =
+      Double.parseDouble(System.getProperty("load.login-failure-ratio", "0.5"));
+  private static final String PASSWORD = "123";
+
+  static {
+    // HttpURLConnection默认只保留5个keep-alive连接
+    System.setProperty("http.maxConnections", String.valueOf(CONCURRENCY));
+    System.setProperty("lind.user-store.location", writeUsers().toUri().toString());
+  }
+
+  @LocalServerPort
+  int port;
+
+  @Test
+  public void mixedTraffic() throws Exception {
+    LoadScenario[] weighted = parseMix(MIX);
+    long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+    long end = warmupEnd + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+    ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+    List<Future<Map<LoadScenario, LoadRecorder>>> futures = new ArrayList<>();
+    for (int i = 0; i < CONCURRENCY; i++) {
+      futures.add(pool.submit(worker(weighted, warmupEnd, end)));
+    }
+    Map<LoadScenario, LoadRecorder> total = new EnumMap<>(LoadScenario.class);
+    for (LoadScenario scenario : LoadScenario.values()) {
+      total.put(scenario, new LoadRecorder());
+    }
+    for (Future<Map<LoadScenario, LoadRecorder>> future : futures) {
+      for (Map.Entry<LoadScenario, LoadRecorder> entry : future.get().entrySet()) {
+        total.get(entry.getKey()).merge(entry.getValue());
+      }
+    }
+    pool.shutdown();
+
+    Properties results = report(total);
+    List<String> violations = LoadBaseline.load(BASELINE, TOLERANCE).check(results);
+    assertTrue("load test regressions: " + violations, violations.isEmpty());
+  }
+
+  /**
+   * 每个线程使用自己的admin和user会话，只在预热结束后记录.
+   */
+  private Callable<Map<LoadScenario, LoadRecorder>> worker(LoadScenario[] weighted,
+                                                         long warmupEnd, long end) {
+    return () -> {
+      Map<LoadScenario, LoadRecorder> recorders = new EnumMap<>(LoadScenario.class);
+      for (LoadScenario scenario : LoadScenario.values()) {
+        recorders.put(scenario, new LoadRecorder());
+      }
+      String userSession = login("user");
+      String adminSession = login("admin");
+      long now;
+      while ((now = System.nanoTime()) < end) {
+        LoadScenario scenario = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+        String cookie = scenario == LoadScenario.ADMIN ? adminSession
+            : scenario == LoadScenario.READ ? userSession : null;
+        boolean ok;
+        try {
+          ok = scenario == LoadScenario.LOGIN ? randomLogin()
+              : send(scenario.getPath(), cookie).status == 200;
+        } catch (IOException e) {
+          ok = false;
+        }
+        if (now >= warmupEnd) {
+          recorders.get(scenario).record(System.nanoTime() - now, ok);
+        }
+      }
+      return recorders;
+    };
+  }
+
+  /**
+   * 随机用户登录，错误密码返回401也算成功.
+   */
+  private boolean randomLogin() throws IOException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String username = "load" + random.nextInt(USERS);
+    if (random.nextDouble() < LOGIN_FAILURE_RATIO) {
+      return send(loginPath(username, "wrong" + random.nextLong()), null).status == 401;
+    }
+    return send(loginPath(username, PASSWORD), null).status == 200;
+  }
+
+  private static String loginPath(String username, String password) {
+    return LoadScenario.LOGIN.getPath() + "?username=" + username + "&password=" + password;
+  }
+
+  private String login(String username) throws IOException {
+    Response response = send(loginPath(username, PASSWORD), null);
+    if (response.status != 200 || response.cookie == null) {
+      throw new IllegalStateException("login failed for " + username + ": " + response.status);
+    }
+    return response.cookie;
+  }
+
+  private Response send(String path, String cookie) throws IOException {
+    HttpURLConnection connection =
+        (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+    connection.setInstanceFollowRedirects(false);
+    if (cookie != null) {
+      connection.setRequestProperty("Cookie", cookie);
+    }
+    int status = connection.getResponseCode();
+    // 读完响应体才能复用连接
+    try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+      if (in != null) {
+        byte[] buffer = new byte[4096];
+        while (in.read(buffer) != -1) {
+          // discard
+        }
+      }
+    }
+    String setCookie = connection.getHeaderField("Set-Cookie");
+    return new Response(status, setCookie == null ? null : setCookie.split(";", 2)[0]);
+  }
+
+  private Properties report(Map<LoadScenario, LoadRecorder> total) throws IOException {
+    Properties results = new Properties();
+    long requests = 0;
+    log.info(String.format("concurrency=%d duration=%ds mix=%s users=%d login-failure-ratio=%.2f",
+        CONCURRENCY, DURATION_SECONDS, MIX, USERS, LOGIN_FAILURE_RATIO));
+    log.info(String.format("%-8s %10s %10s %10s %10s %10s %10s",
+        "scenario", "requests", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "errors"));
+    for (Map.Entry<LoadScenario, LoadRecorder> entry : total.entrySet()) {
+      LoadRecorder recorder = entry.getValue();
+      if (recorder.count() == 0) {
+        continue;
+      }
+      recorder.sort();
+      String key = entry.getKey().key();
+      double throughput = (double) recorder.count() / DURATION_SECONDS;
+      requests += recorder.count();
+      results.setProperty(key + ".throughput", String.format("%.1f", throughput));
+      results.setProperty(key + ".p50", String.format("%.3f", recorder.percentileMillis(0.50)));
+      results.setProperty(key + ".p99", String.format("%.3f", recorder.percentileMillis(0.99)));
+      results.setProperty(key + ".p999", String.format("%.3f", recorder.percentileMillis(0.999)));
+      results.setProperty(key + ".error-rate", String.format("%.5f", recorder.errorRate()));
+      log.info(String.format("%-8s %10d %10.1f %10.3f %10.3f %10.3f %10.5f",
+          key, recorder.count(), throughput, recorder.percentileMillis(0.50),
+          recorder.percentileMillis(0.99), recorder.percentileMillis(0.999), recorder.errorRate()));
+    }
+    results.setProperty("total.throughput", String.format("%.1f", (double) requests / DURATION_SECONDS));
+
+    // 结果格式与基线相同，可直接复制为新的基线
+    File dir = new File(REPORT_DIR);
+    if (dir.isDirectory() || dir.mkdirs()) {
+      try (OutputStream out = new FileOutputStream(new File(dir, "results.properties"))) {
+        results.store(out, "concurrency=" + CONCURRENCY + " duration=" + DURATION_SECONDS + "s mix=" + MIX);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * 生成压测用户：user、admin和load0..load(N-1)，密码都是同一个BCrypt hash，只计算一次.
+   * 强度与lind.bcrypt.strength相同，登录后不会触发密码升级.
+   */
+  private static Path writeUsers() {
+    String hash = new BCryptPasswordEncoder(10).encode(PASSWORD);
+    List<String> lines = new ArrayList<>();
+    lines.add("admin," + hash + ",read,ROLE_ADMIN");
+    lines.add("user," + hash + ",read,ROLE_USER");
+    for (int i = 0; i < USERS; i++) {
+      lines.add("load" + i + "," + hash + ",read,ROLE_USER");
+    }
+    try {
+      Path file = Files.createTempFile("load-users", ".csv");
+      file.toFile().deleteOnExit();
+      Files.write(file, lines, StandardCharsets.UTF_8);
+      return file;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * login:1,read:4展开为按权重重复的场景数组，随机取下标即可按比例选择.
+   */
+  static LoadScenario[] parseMix(String mix) {
+    List<LoadScenario> weighted = new ArrayList<>();
+    for (String part : mix.split(",")) {
+      String[] pair = part.trim().split(":");
+      LoadScenario scenario = LoadScenario.valueOf(pair[0].trim().toUpperCase());
+      int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+      for (int i = 0; i < weight; i++) {
+        weighted.add(scenario);
+      }
+    }
+    if (weighted.isEmpty()) {
+      throw new IllegalArgumentException("empty load.mix: " + mix);
+    }
+    return weighted.toArray(new LoadScenario[0]);
+  }
+
+  private static final class Response {
+    final int status;
+    final String cookie;
+
+    Response(int status, String cookie) {
+      this.status = status;
+      this.cookie = cookie;
+    }
+  }
+}
@@ -2,8 +2,10 @@ package com.lind.webSecurity;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class WebSecurityApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,48 @@
+package com.lind.webSecurity.audit;
+
+/**
+ * 安全审计事件，序列化成一行json写入审计文件.
+ */
+public class AuditEvent {
+  public static final String LOGIN_SUCCESS = "LOGIN_SUCCESS";
+
+  public static final String LOGIN_FAILURE = "LOGIN_FAILURE";
+
+  private final long timestamp;
+
+  private final String type;
+
+  private final String username;
+
+  private final String remoteAddress;
+
+  private final String message;
+
+  public AuditEvent(String type, String username, String remoteAddress, String message) {
+    this.timestamp = System.currentTimeMillis();
+    this.type = type;
+    this.username = username;
+    this.remoteAddress = remoteAddress;
+    this.message = message;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public String getRemoteAddress() {
+    return remoteAddress;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,145 @@
+package com.lind.webSecurity.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 异步批量的安全审计日志.
+ * 请求线程只把事件放进无锁环形缓冲区，由单独的写线程批量序列化成jsonl写入内存映射文件.
+ * 缓冲区满时按lind.audit.full-policy处理：DROP丢弃并计数，BLOCK等待写线程腾出空间，关闭时仍未放入的也计为丢弃.
+ * 多个实例可以共用lind.audit.directory，每个实例写在自己的子目录中，见MappedAuditFile.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+  public enum FullPolicy {
+    DROP, BLOCK
+  }
+
+  private static final byte NEW_LINE = '\n';
+
+  private final ObjectMapper objectMapper;
+
+  private final AuditRingBuffer ringBuffer;
+
+  private final FullPolicy fullPolicy;
+
+  private final int batchSize;
+
+  private final MappedAuditFile file;
+
+  private final LongAdder droppedCount = new LongAdder();
+
+  private final LongAdder writtenCount = new LongAdder();
+
+  private final Thread writer;
+
+  private volatile boolean running = true;
+
+  public AuditLog(
+      ObjectMapper objectMapper,
+      @Value("${lind.audit.directory:${java.io.tmpdir}/webSecurity-audit}") String directory,
+      @Value("${lind.audit.buffer-size:8192}") int bufferSize,
+      @Value("${lind.audit.full-policy:DROP}") FullPolicy fullPolicy,
+      @Value("${lind.audit.batch-size:256}") int batchSize,
+      @Value("${lind.audit.segment-size:16777216}") int segmentSize,
+      @Value("${lind.audit.max-segments:8}") int maxSegments) throws IOException {
+    this.objectMapper = objectMapper;
+    this.ringBuffer = new AuditRingBuffer(bufferSize);
+    this.fullPolicy = fullPolicy;
+    this.batchSize = batchSize;
+    this.file = new MappedAuditFile(Paths.get(directory), segmentSize, maxSegments);
+    this.writer = new Thread(this::drainLoop, "lind-audit-writer");
+    this.writer.setDaemon(true);
+  }
+
+  @PostConstruct
+  public void start() {
+    writer.start();
+  }
+
+  /**
+   * 记录事件，不阻塞(DROP)或只在缓冲区满时等待(BLOCK).
+   */
+  public void record(AuditEvent event) {
+    // 关闭后写线程不再消费，直接计为丢弃
+    if (!running) {
+      droppedCount.increment();
+      return;
+    }
+    if (ringBuffer.offer(event)) {
+      return;
+    }
+    if (fullPolicy == FullPolicy.BLOCK) {
+      while (!ringBuffer.offer(event)) {
+        if (!running) {
+          droppedCount.increment();
+          return;
+        }
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+      }
+    } else {
+      droppedCount.increment();
+    }
+  }
+
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  public long getWrittenCount() {
+    return writtenCount.sum();
+  }
+
+  public int getPendingCount() {
+    return ringBuffer.size();
+  }
+
+  private void drainLoop() {
+    List<AuditEvent> batch = new ArrayList<>(batchSize);
+    while (running || ringBuffer.size() > 0) {
+      batch.clear();
+      if (ringBuffer.drainTo(batch, batchSize) == 0) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        continue;
+      }
+      for (AuditEvent event : batch) {
+        try {
+          file.append(toRecord(event));
+          writtenCount.increment();
+        } catch (IOException | RuntimeException ex) {
+          log.warn("audit write failed,type={}", event.getType(), ex);
+        }
+      }
+    }
+  }
+
+  private byte[] toRecord(AuditEvent event) throws IOException {
+    byte[] json = objectMapper.writeValueAsBytes(event);
+    byte[] record = new byte[json.length + 1];
+    System.arraycopy(json, 0, record, 0, json.length);
+    record[json.length] = NEW_LINE;
+    return record;
+  }
+
+  /**
+   * 停止前写完缓冲区中剩余的事件.
+   */
+  @PreDestroy
+  public void close() throws IOException, InterruptedException {
+    running = false;
+    writer.join(TimeUnit.SECONDS.toMillis(5));
+    file.close();
+  }
+}
@@ -0,0 +1,92 @@
+package com.lind.webSecurity.audit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 查询最近审计事件的小工具，可以在应用运行时读取；目录是lind.audit.directory，包含所有写入者的子目录.
+ * 用法：java -cp webSecurity.jar -Dloader.main=com.lind.webSecurity.audit.AuditLogReader
+ * org.springframework.boot.loader.PropertiesLauncher 目录 [条数] [用户名]
+ */
+public final class AuditLogReader {
+  private static final Pattern TIMESTAMP = Pattern.compile("\"timestamp\":(\\d+)");
+
+  private AuditLogReader() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("usage: AuditLogReader <directory> [limit] [username]");
+      System.exit(1);
+    }
+    int limit = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    String username = args.length > 2 ? args[2] : null;
+    for (String line : recent(Paths.get(args[0]), limit, username)) {
+      System.out.println(line);
+    }
+  }
+
+  /**
+   * 从各写入者最新的分段往前读取最近的事件，多个写入者的事件按时间合并.
+   *
+   * @param directory 审计目录.
+   * @param limit     最多返回的条数.
+   * @param username  只返回该用户的事件，null表示不过滤.
+   * @return 按时间从旧到新排列的json行.
+   */
+  public static List<String> recent(Path directory, int limit, String username) throws IOException {
+    String usernameField = username == null ? null : "\"username\":\"" + username + "\"";
+    List<String> result = new ArrayList<>();
+    for (Path writer : MappedAuditFile.directories(directory)) {
+      result.addAll(recent(MappedAuditFile.segments(writer), limit, usernameField));
+    }
+    // 排序是稳定的，同一写入者同一毫秒内的事件保持写入顺序
+    result.sort(Comparator.comparingLong(AuditLogReader::timestamp));
+    return new ArrayList<>(result.subList(Math.max(0, result.size() - limit), result.size()));
+  }
+
+  private static List<String> recent(List<Path> segments, int limit, String usernameField)
+      throws IOException {
+    List<String> result = new ArrayList<>();
+    for (int i = segments.size() - 1; i >= 0 && result.size() < limit; i--) {
+      List<String> lines = readSegment(segments.get(i));
+      for (int j = lines.size() - 1; j >= 0 && result.size() < limit; j--) {
+        String line = lines.get(j);
+        if (usernameField == null || line.contains(usernameField)) {
+          result.add(line);
+        }
+      }
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  private static long timestamp(String line) {
+    Matcher matcher = TIMESTAMP.matcher(line);
+    return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+  }
+
+  private static List<String> readSegment(Path segment) throws IOException {
+    byte[] bytes = Files.readAllBytes(segment);
+    int end = 0;
+    while (end < bytes.length && bytes[end] != 0) {
+      end++;
+    }
+    List<String> lines = new ArrayList<>();
+    for (String line : new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n")) {
+      if (!line.isEmpty()) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,72 @@
+package com.lind.webSecurity.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 多生产者单消费者的无锁环形缓冲区.
+ * 生产者用CAS抢占写入位置，消费者(审计写线程)按顺序取出，容量是2的幂.
+ */
+class AuditRingBuffer {
+  private final AtomicReferenceArray<AuditEvent> slots;
+
+  private final int mask;
+
+  private final AtomicLong tail = new AtomicLong();
+
+  private volatile long head;
+
+  AuditRingBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * 写入事件，缓冲区已满时返回false.
+   */
+  boolean offer(AuditEvent event) {
+    for (;;) {
+      long t = tail.get();
+      if (t - head > mask) {
+        return false;
+      }
+      if (tail.compareAndSet(t, t + 1)) {
+        slots.set((int) (t & mask), event);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * 只能由消费者线程调用，最多取出max个事件.
+   *
+   * @return 取出的数量.
+   */
+  int drainTo(List<AuditEvent> batch, int max) {
+    long h = head;
+    int count = 0;
+    while (count < max) {
+      int index = (int) (h & mask);
+      AuditEvent event = slots.get(index);
+      if (event == null) {
+        break;
+      }
+      slots.set(index, null);
+      batch.add(event);
+      h++;
+      count++;
+    }
+    head = h;
+    return count;
+  }
+
+  int size() {
+    return (int) (tail.get() - head);
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+}
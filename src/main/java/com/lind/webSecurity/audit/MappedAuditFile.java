@@ -0,0 +1,252 @@
+package com.lind.webSecurity.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 追加写入的内存映射审计文件.
+ * 审计目录可以被同一台机器上的多个实例(以及同一JVM中的多个Spring上下文)共用：每个写入者占用一个writer-编号子目录，
+ * 运行期间持有其中.lock文件的FileLock，只在自己的子目录中创建和删除分段；子目录空闲时由下一个启动的写入者接管.
+ * 每个分段是固定大小的audit-序号.jsonl文件，写满后切换到新分段，超过maxSegments时删除本子目录中最旧的分段.
+ * 序号补零到19位并且从子目录中已有的最大序号继续递增，文件名顺序就是写入顺序，不受时钟回拨影响.
+ * 启动时最新的分段还有空间就接着写，重启不会生成新的分段挤掉历史记录.
+ * 分段中未写入的部分是0字节，读取时遇到0即结束.
+ * 只由审计写线程使用，不是线程安全的.
+ */
+class MappedAuditFile implements AutoCloseable {
+  static final String PREFIX = "audit-";
+
+  static final String SUFFIX = ".jsonl";
+
+  private static final String WRITER_PREFIX = "writer-";
+
+  private static final String LOCK_FILE = ".lock";
+
+  private static final Pattern SEGMENT = Pattern.compile(
+      Pattern.quote(PREFIX) + "(\\d{19})" + Pattern.quote(SUFFIX));
+
+  private static final Pattern WRITER = Pattern.compile(Pattern.quote(WRITER_PREFIX) + "\\d+");
+
+  /**
+   * 本JVM中已占用的子目录.同一进程对同一文件只能持有一把FileLock，关闭任何一个通道都可能释放它，
+   * 所以先在进程内登记，再用FileLock排除其它进程.
+   */
+  private static final Set<Path> CLAIMED = ConcurrentHashMap.newKeySet();
+
+  private final int segmentSize;
+
+  private final int maxSegments;
+
+  private Path directory;
+
+  private FileChannel lockChannel;
+
+  private FileChannel channel;
+
+  private MappedByteBuffer buffer;
+
+  private long nextSequence;
+
+  MappedAuditFile(Path root, int segmentSize, int maxSegments) throws IOException {
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+    Files.createDirectories(root);
+    claim(root.toAbsolutePath().normalize());
+    try {
+      List<Path> segments = segments(directory);
+      if (!segments.isEmpty()) {
+        Path latest = segments.get(segments.size() - 1);
+        nextSequence = sequence(latest) + 1;
+        resume(latest);
+      }
+      if (buffer == null) {
+        rotate();
+      }
+    } catch (IOException | RuntimeException ex) {
+      close();
+      throw ex;
+    }
+  }
+
+  /**
+   * 写入一条记录，当前分段放不下时先切换分段，超过分段大小的记录会被截断.
+   */
+  void append(byte[] record) throws IOException {
+    int length = Math.min(record.length, segmentSize);
+    if (buffer.remaining() < length) {
+      rotate();
+    }
+    buffer.put(record, 0, length);
+  }
+
+  /**
+   * 占用第一个空闲的writer-编号子目录.
+   */
+  private void claim(Path root) throws IOException {
+    for (int n = 0; ; n++) {
+      Path candidate = root.resolve(WRITER_PREFIX + n);
+      if (!CLAIMED.add(candidate)) {
+        continue;
+      }
+      Files.createDirectories(candidate);
+      FileChannel candidateChannel = FileChannel.open(candidate.resolve(LOCK_FILE),
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      FileLock lock;
+      try {
+        lock = candidateChannel.tryLock();
+      } catch (IOException | RuntimeException ex) {
+        candidateChannel.close();
+        CLAIMED.remove(candidate);
+        throw ex;
+      }
+      if (lock != null) {
+        directory = candidate;
+        lockChannel = candidateChannel;
+        return;
+      }
+      // 被其它进程占用
+      candidateChannel.close();
+      CLAIMED.remove(candidate);
+    }
+  }
+
+  /**
+   * 大小与当前配置一致并且还有空间时，接着上次写到的位置继续写.
+   */
+  private void resume(Path segment) throws IOException {
+    FileChannel existing = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    if (existing.size() != segmentSize) {
+      existing.close();
+      return;
+    }
+    MappedByteBuffer mapped = existing.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    int end = dataEnd(mapped);
+    if (end == segmentSize) {
+      existing.close();
+      return;
+    }
+    mapped.position(end);
+    channel = existing;
+    buffer = mapped;
+  }
+
+  private void rotate() throws IOException {
+    closeSegment();
+    while (true) {
+      Path segment = directory.resolve(String.format("%s%019d%s", PREFIX, nextSequence++, SUFFIX));
+      try {
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        break;
+      } catch (FileAlreadyExistsException ex) {
+        // 序号已被占用，换下一个序号
+      }
+    }
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    deleteOldSegments();
+  }
+
+  private void deleteOldSegments() throws IOException {
+    List<Path> segments = segments(directory);
+    for (int i = 0; i < segments.size() - maxSegments; i++) {
+      Files.deleteIfExists(segments.get(i));
+    }
+  }
+
+  private void closeSegment() throws IOException {
+    if (buffer != null) {
+      buffer.force();
+    }
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      closeSegment();
+    } finally {
+      if (lockChannel != null) {
+        lockChannel.close();
+        CLAIMED.remove(directory);
+        lockChannel = null;
+      }
+    }
+  }
+
+  /**
+   * 记录(json)中没有0字节，数据是分段开头连续的非0部分，二分查找第一个0.
+   */
+  private static int dataEnd(MappedByteBuffer buffer) {
+    int low = 0;
+    int high = buffer.capacity();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (buffer.get(middle) != 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * 审计目录本身和其中各写入者的子目录.
+   */
+  static List<Path> directories(Path root) throws IOException {
+    if (!Files.isDirectory(root)) {
+      return Collections.emptyList();
+    }
+    List<Path> directories = new ArrayList<>();
+    directories.add(root);
+    try (Stream<Path> files = Files.list(root)) {
+      files.filter(path -> Files.isDirectory(path)
+          && WRITER.matcher(path.getFileName().toString()).matches())
+          .sorted()
+          .forEach(directories::add);
+    }
+    return directories;
+  }
+
+  /**
+   * 目录下的分段，按序号从旧到新排序；序号等长，文件名顺序即序号顺序.
+   */
+  static List<Path> segments(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return Collections.emptyList();
+    }
+    List<Path> segments = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      files.filter(path -> {
+        String name = path.getFileName().toString();
+        return SEGMENT.matcher(name).matches();
+      }).forEach(segments::add);
+    }
+    Collections.sort(segments);
+    return segments;
+  }
+
+  private static long sequence(Path segment) {
+    Matcher matcher = SEGMENT.matcher(segment.getFileName().toString());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("not an audit segment: " + segment);
+    }
+    return Long.parseLong(matcher.group(1));
+  }
+}
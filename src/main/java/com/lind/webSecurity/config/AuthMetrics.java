@@ -0,0 +1,118 @@
+package com.lind.webSecurity.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录流程各阶段的耗时、进行中数量和结果计数，注册到Micrometer.
+ * 每个阶段一个带百分位直方图的Timer(lind.auth.stage)，start/stop只做数组下标访问，不分配对象.
+ */
+@Component
+public class AuthMetrics {
+  public enum Stage {
+    FILTER("filter"),
+    RETRIEVE_USER("retrieve-user"),
+    LOAD_USER("load-user"),
+    PASSWORD_CHECK("password-check"),
+    SUCCESS_HANDLER("success-handler"),
+    FAILURE_HANDLER("failure-handler");
+
+    private final String tag;
+
+    Stage(String tag) {
+      this.tag = tag;
+    }
+
+    public String getTag() {
+      return tag;
+    }
+  }
+
+  private final MeterRegistry registry;
+
+  private final Timer[] timers = new Timer[Stage.values().length];
+
+  private final AtomicInteger[] inFlight = new AtomicInteger[Stage.values().length];
+
+  private final Counter successCounter;
+
+  private final Counter coalescedCounter;
+
+  private final Map<Class<?>, Counter> failureCounters = new ConcurrentHashMap<>();
+
+  public AuthMetrics(MeterRegistry registry, LindHashingExecutor hashingExecutor) {
+    this.registry = registry;
+    for (Stage stage : Stage.values()) {
+      timers[stage.ordinal()] = Timer.builder("lind.auth.stage")
+          .tag("stage", stage.getTag())
+          .publishPercentiles(0.5, 0.99, 0.999)
+          .publishPercentileHistogram()
+          .register(registry);
+      inFlight[stage.ordinal()] = registry.gauge("lind.auth.inflight",
+          Tags.of("stage", stage.getTag()), new AtomicInteger());
+    }
+    successCounter = registry.counter("lind.auth.result", "result", "success");
+    coalescedCounter = registry.counter("lind.auth.coalesced");
+    Gauge.builder("lind.auth.hashing.queue", hashingExecutor, LindHashingExecutor::getQueueDepth)
+        .register(registry);
+    Gauge.builder("lind.auth.hashing.wait.avg", hashingExecutor,
+        LindHashingExecutor::getAverageWaitMillis)
+        .baseUnit("milliseconds")
+        .register(registry);
+    Gauge.builder("lind.auth.hashing.rejected", hashingExecutor,
+        LindHashingExecutor::getRejectedCount)
+        .register(registry);
+  }
+
+  /**
+   * 开始计时.
+   *
+   * @return 开始时间，传给stop.
+   */
+  public long start(Stage stage) {
+    inFlight[stage.ordinal()].incrementAndGet();
+    return System.nanoTime();
+  }
+
+  public void stop(Stage stage, long start) {
+    timers[stage.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    inFlight[stage.ordinal()].decrementAndGet();
+  }
+
+  public void success() {
+    successCounter.increment();
+  }
+
+  /**
+   * 等待同一凭证正在进行的认证，没有自己计算.
+   */
+  public void coalesced() {
+    coalescedCounter.increment();
+  }
+
+  /**
+   * 按异常类型计数.
+   */
+  public void failure(AuthenticationException exception) {
+    failureCounters.computeIfAbsent(exception.getClass(), type -> registry.counter(
+        "lind.auth.result", "result", "failure", "exception", type.getSimpleName()))
+        .increment();
+  }
+
+  public Timer timer(Stage stage) {
+    return timers[stage.ordinal()];
+  }
+
+  public int inFlight(Stage stage) {
+    return inFlight[stage.ordinal()].get();
+  }
+}
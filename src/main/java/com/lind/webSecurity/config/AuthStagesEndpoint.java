@@ -0,0 +1,45 @@
+package com.lind.webSecurity.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/authstages：登录流程各阶段的耗时分布，单位毫秒.
+ * 原始数据也可以通过/actuator/metrics/lind.auth.stage?tag=stage:xxx或者Micrometer的registry导出.
+ */
+@Component
+@Endpoint(id = "authstages")
+public class AuthStagesEndpoint {
+  @Autowired
+  AuthMetrics authMetrics;
+
+  @ReadOperation
+  public Map<String, Object> stages() {
+    Map<String, Object> stages = new LinkedHashMap<>();
+    for (AuthMetrics.Stage stage : AuthMetrics.Stage.values()) {
+      Timer timer = authMetrics.timer(stage);
+      HistogramSnapshot snapshot = timer.takeSnapshot();
+      Map<String, Object> values = new LinkedHashMap<>();
+      values.put("count", snapshot.count());
+      values.put("mean", snapshot.mean(TimeUnit.MILLISECONDS));
+      values.put("max", snapshot.max(TimeUnit.MILLISECONDS));
+      for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+        String name = BigDecimal.valueOf(percentile.percentile()).movePointRight(2)
+            .stripTrailingZeros().toPlainString();
+        values.put("p" + name, percentile.value(TimeUnit.MILLISECONDS));
+      }
+      values.put("inFlight", authMetrics.inFlight(stage));
+      stages.put(stage.getTag(), values);
+    }
+    return stages;
+  }
+}
@@ -0,0 +1,36 @@
+package com.lind.webSecurity.config;
+
+import org.springframework.security.access.ConfigAttribute;
+
+/**
+ * 编译后的@PreAuthorize规则：principal的权限掩码与mask有交集即通过.
+ */
+public class CompiledAuthorityAttribute implements ConfigAttribute {
+  private static final long serialVersionUID = 1L;
+
+  private final String expression;
+
+  private final long mask;
+
+  public CompiledAuthorityAttribute(String expression, long mask) {
+    this.expression = expression;
+    this.mask = mask;
+  }
+
+  public long getMask() {
+    return mask;
+  }
+
+  /**
+   * 不能用字符串表示，RoleVoter等按字符串判断的voter会忽略它.
+   */
+  @Override
+  public String getAttribute() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+}
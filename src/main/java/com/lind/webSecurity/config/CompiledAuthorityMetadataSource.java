@@ -0,0 +1,97 @@
+package com.lind.webSecurity.config;
+
+import com.lind.webSecurity.user.AuthorityRegistry;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.method.AbstractMethodSecurityMetadataSource;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PostFilter;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.access.prepost.PreFilter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 把简单的@PreAuthorize表达式编译成权限掩码.
+ * 支持hasAuthority、hasAnyAuthority、hasRole、hasAnyRole，hasRole会像SecurityExpressionRoot一样补ROLE_前缀；
+ * 其它表达式或者同时使用了@PostAuthorize等注解时返回空，交给默认的PrePostAnnotationSecurityMetadataSource处理.
+ * 代理创建时会对每个方法调用一次，结果由DelegatingMethodSecurityMetadataSource缓存.
+ */
+public class CompiledAuthorityMetadataSource extends AbstractMethodSecurityMetadataSource {
+  private static final String ROLE_PREFIX = "ROLE_";
+
+  private static final Pattern EXPRESSION =
+      Pattern.compile("^\\s*(hasAuthority|hasAnyAuthority|hasRole|hasAnyRole)\\s*\\((.*)\\)\\s*$");
+
+  private static final Pattern ARGUMENT = Pattern.compile("\\s*'([^']*)'\\s*(,|$)");
+
+  private final AuthorityRegistry authorityRegistry;
+
+  public CompiledAuthorityMetadataSource(AuthorityRegistry authorityRegistry) {
+    this.authorityRegistry = authorityRegistry;
+  }
+
+  @Override
+  public Collection<ConfigAttribute> getAttributes(Method method, Class<?> targetClass) {
+    if (method.getDeclaringClass() == Object.class) {
+      return Collections.emptyList();
+    }
+    Method specificMethod = ClassUtils.getMostSpecificMethod(method, targetClass);
+    if (AnnotationUtils.findAnnotation(specificMethod, PostAuthorize.class) != null
+        || AnnotationUtils.findAnnotation(specificMethod, PreFilter.class) != null
+        || AnnotationUtils.findAnnotation(specificMethod, PostFilter.class) != null) {
+      return Collections.emptyList();
+    }
+    PreAuthorize preAuthorize = AnnotationUtils.findAnnotation(specificMethod, PreAuthorize.class);
+    if (preAuthorize == null) {
+      return Collections.emptyList();
+    }
+    CompiledAuthorityAttribute attribute = compile(preAuthorize.value());
+    return attribute == null
+        ? Collections.emptyList()
+        : Collections.singletonList(attribute);
+  }
+
+  /**
+   * 编译表达式，不支持时返回null.
+   */
+  CompiledAuthorityAttribute compile(String expression) {
+    Matcher matcher = EXPRESSION.matcher(expression);
+    if (!matcher.matches()) {
+      return null;
+    }
+    boolean role = matcher.group(1).endsWith("Role");
+    boolean any = matcher.group(1).startsWith("hasAny");
+    String arguments = matcher.group(2);
+    Matcher argument = ARGUMENT.matcher(arguments);
+    long mask = 0L;
+    int count = 0;
+    int end = 0;
+    while (end < arguments.length() && argument.find(end) && argument.start() == end) {
+      String name = argument.group(1);
+      if (role && !name.startsWith(ROLE_PREFIX)) {
+        name = ROLE_PREFIX + name;
+      }
+      int id = authorityRegistry.intern(name);
+      if (id < 0) {
+        return null;
+      }
+      mask |= 1L << id;
+      count++;
+      end = argument.end();
+    }
+    if (end != arguments.length() || count == 0 || (!any && count > 1)) {
+      return null;
+    }
+    return new CompiledAuthorityAttribute(expression, mask);
+  }
+
+  @Override
+  public Collection<ConfigAttribute> getAllConfigAttributes() {
+    return null;
+  }
+}
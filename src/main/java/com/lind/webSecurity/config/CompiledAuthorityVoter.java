@@ -0,0 +1,54 @@
+package com.lind.webSecurity.config;
+
+import com.lind.webSecurity.user.AuthorityRegistry;
+import com.lind.webSecurity.user.UserRecord;
+import java.util.Collection;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.core.Authentication;
+
+/**
+ * 处理CompiledAuthorityAttribute，判断只是一次掩码运算.
+ * UserRecord直接使用加载时算好的掩码，其它principal按权限列表现算.
+ */
+public class CompiledAuthorityVoter implements AccessDecisionVoter<MethodInvocation> {
+  private final AuthorityRegistry authorityRegistry;
+
+  public CompiledAuthorityVoter(AuthorityRegistry authorityRegistry) {
+    this.authorityRegistry = authorityRegistry;
+  }
+
+  @Override
+  public boolean supports(ConfigAttribute attribute) {
+    return attribute instanceof CompiledAuthorityAttribute;
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return MethodInvocation.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public int vote(Authentication authentication, MethodInvocation invocation,
+                  Collection<ConfigAttribute> attributes) {
+    for (ConfigAttribute attribute : attributes) {
+      if (attribute instanceof CompiledAuthorityAttribute) {
+        long mask = ((CompiledAuthorityAttribute) attribute).getMask();
+        return (authorityMask(authentication) & mask) != 0 ? ACCESS_GRANTED : ACCESS_DENIED;
+      }
+    }
+    return ACCESS_ABSTAIN;
+  }
+
+  private long authorityMask(Authentication authentication) {
+    if (authentication == null) {
+      return 0L;
+    }
+    Object principal = authentication.getPrincipal();
+    if (principal instanceof UserRecord) {
+      return ((UserRecord) principal).getAuthorityMask();
+    }
+    return authorityRegistry.mask(authentication.getAuthorities());
+  }
+}
@@ -0,0 +1,56 @@
+package com.lind.webSecurity.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Collection;
+import java.util.Collections;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.security.web.access.intercept.FilterInvocationSecurityMetadataSource;
+
+/**
+ * FilterSecurityInterceptor使用的路由权限来源，替换antMatchers生成的有序列表.
+ * 路径取servletPath+pathInfo，与AntPathRequestMatcher相同.
+ * cacheSize大于0时用一个LRU缓存最近的路径判定结果，路径空间很大(带id的REST路径)时没有意义，默认关闭.
+ */
+public class CompiledRouteMetadataSource implements FilterInvocationSecurityMetadataSource {
+  private final RouteAuthorizationTrie trie;
+  private final Cache<String, Collection<ConfigAttribute>> cache;
+
+  public CompiledRouteMetadataSource(RouteAuthorizationTrie trie, long cacheSize) {
+    this.trie = trie;
+    this.cache = cacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(cacheSize).build() : null;
+  }
+
+  @Override
+  public Collection<ConfigAttribute> getAttributes(Object object) {
+    String path = getRequestPath(((FilterInvocation) object).getHttpRequest());
+    if (cache == null) {
+      return trie.match(path);
+    }
+    Collection<ConfigAttribute> attributes = cache.getIfPresent(path);
+    if (attributes == null) {
+      attributes = trie.match(path);
+      // Guava不允许null值，没有匹配时缓存空列表
+      cache.put(path, attributes == null ? Collections.emptyList() : attributes);
+    }
+    return attributes.isEmpty() ? null : attributes;
+  }
+
+  @Override
+  public Collection<ConfigAttribute> getAllConfigAttributes() {
+    return trie.getAllConfigAttributes();
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return FilterInvocation.class.isAssignableFrom(clazz);
+  }
+
+  static String getRequestPath(HttpServletRequest request) {
+    String url = request.getServletPath();
+    String pathInfo = request.getPathInfo();
+    return pathInfo == null ? url : url + pathInfo;
+  }
+}
@@ -0,0 +1,176 @@
+package com.lind.webSecurity.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.stereotype.Component;
+
+/**
+ * 安全过滤器链中每个过滤器的耗时，按过滤器和路由(RouteAuthorizationTrie中第一条匹配规则的模式)记录.
+ * 记录的是过滤器自身的耗时，不包含它调用的后续过滤器和servlet.
+ * lind.filter-profile.enabled=true时由ProfilingFilterChainPostProcessor包装springSecurityFilterChain，
+ * 数据在/actuator/filterprofile和/actuator/metrics/lind.security.filter中查看.
+ */
+@Component
+public class FilterChainProfiler {
+  static final String ROUTE_ATTRIBUTE = FilterChainProfiler.class.getName() + ".ROUTE";
+
+  @Autowired
+  MeterRegistry registry;
+
+  @Autowired
+  RouteAuthorizationTrie routeAuthorizationTrie;
+
+  private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers =
+      new ConcurrentHashMap<>();
+
+  /**
+   * 过滤器按链中的顺序排列.
+   */
+  private final Set<String> filterNames = Collections.synchronizedSet(new LinkedHashSet<>());
+
+  /**
+   * 用包装了每个过滤器的链替换原来的FilterChainProxy，匹配规则和顺序不变.
+   */
+  public FilterChainProxy profile(FilterChainProxy proxy) throws ServletException {
+    List<SecurityFilterChain> chains = new ArrayList<>();
+    for (SecurityFilterChain chain : proxy.getFilterChains()) {
+      List<Filter> filters = new ArrayList<>();
+      for (Filter filter : chain.getFilters()) {
+        String name = filter.getClass().getSimpleName().isEmpty()
+            ? filter.getClass().getName() : filter.getClass().getSimpleName();
+        filterNames.add(name);
+        filters.add(new ProfiledFilter(name, filter));
+      }
+      chains.add(new DefaultSecurityFilterChain(chain::matches, filters));
+    }
+    FilterChainProxy profiled = new FilterChainProxy(chains);
+    profiled.afterPropertiesSet();
+    return profiled;
+  }
+
+  /**
+   * 各路由下每个过滤器的耗时，单位毫秒.
+   */
+  public Map<String, Map<String, Map<String, Object>>> snapshot() {
+    Map<String, Map<String, Map<String, Object>>> routes = new LinkedHashMap<>();
+    List<String> names;
+    synchronized (filterNames) {
+      names = new ArrayList<>(filterNames);
+    }
+    timers.forEach((route, byFilter) -> {
+      Map<String, Map<String, Object>> filters = new LinkedHashMap<>();
+      for (String name : names) {
+        Timer timer = byFilter.get(name);
+        if (timer == null) {
+          continue;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", timer.count());
+        values.put("total", timer.totalTime(TimeUnit.MILLISECONDS));
+        values.put("mean", timer.mean(TimeUnit.MILLISECONDS));
+        values.put("max", timer.max(TimeUnit.MILLISECONDS));
+        filters.put(name, values);
+      }
+      routes.put(route, filters);
+    });
+    return routes;
+  }
+
+  private String route(HttpServletRequest request) {
+    String route = (String) request.getAttribute(ROUTE_ATTRIBUTE);
+    if (route == null) {
+      route = routeAuthorizationTrie.route(CompiledRouteMetadataSource.getRequestPath(request));
+      route = route == null ? "unmatched" : route;
+      request.setAttribute(ROUTE_ATTRIBUTE, route);
+    }
+    return route;
+  }
+
+  private void record(String filter, String route, long nanos) {
+    timers.computeIfAbsent(route, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(filter, key -> Timer.builder("lind.security.filter")
+            .tag("filter", filter)
+            .tag("route", route)
+            .publishPercentiles(0.5, 0.99)
+            .register(registry))
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private final class ProfiledFilter implements Filter {
+    private final String name;
+    private final Filter delegate;
+
+    private ProfiledFilter(String name, Filter delegate) {
+      this.name = name;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+      delegate.init(filterConfig);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+      String route = route((HttpServletRequest) request);
+      TimedChain next = new TimedChain(chain);
+      long start = System.nanoTime();
+      try {
+        delegate.doFilter(request, response, next);
+      } finally {
+        record(name, route, System.nanoTime() - start - next.nanos);
+      }
+    }
+
+    @Override
+    public void destroy() {
+      delegate.destroy();
+    }
+  }
+
+  /**
+   * 记录后续过滤器和servlet的耗时，从当前过滤器的耗时中扣除.
+   */
+  private static final class TimedChain implements FilterChain {
+    private final FilterChain chain;
+    private long nanos;
+
+    private TimedChain(FilterChain chain) {
+      this.chain = chain;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response)
+        throws IOException, ServletException {
+      long start = System.nanoTime();
+      try {
+        chain.doFilter(request, response);
+      } finally {
+        nanos += System.nanoTime() - start;
+      }
+    }
+  }
+}
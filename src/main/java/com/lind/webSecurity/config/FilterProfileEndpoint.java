@@ -0,0 +1,23 @@
+package com.lind.webSecurity.config;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/filterprofile：各路由下安全过滤器链中每个过滤器自身的耗时，单位毫秒.
+ * 需要lind.filter-profile.enabled=true，否则没有数据.
+ */
+@Component
+@Endpoint(id = "filterprofile")
+public class FilterProfileEndpoint {
+  @Autowired
+  FilterChainProfiler filterChainProfiler;
+
+  @ReadOperation
+  public Map<String, Map<String, Map<String, Object>>> routes() {
+    return filterChainProfiler.snapshot();
+  }
+}
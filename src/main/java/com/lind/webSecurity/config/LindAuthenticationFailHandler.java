@@ -1,23 +1,27 @@
 package com.lind.webSecurity.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.ImmutableMap;
+import com.lind.webSecurity.audit.AuditEvent;
+import com.lind.webSecurity.audit.AuditLog;
 import java.io.IOException;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.stereotype.Component;
 
-@Slf4j
 @Component
 public class LindAuthenticationFailHandler
     implements AuthenticationFailureHandler {
   @Autowired
-  ObjectMapper objectMapper;
+  LindJsonResponseWriter lindJsonResponseWriter;
+
+  @Autowired
+  AuditLog auditLog;
+
+  @Autowired
+  AuthMetrics authMetrics;
 
   /**
    * Called when an authentication attempt fails.
@@ -31,12 +35,26 @@ public class LindAuthenticationFailHandler
       HttpServletRequest request,
       HttpServletResponse response,
       AuthenticationException exception) throws IOException, ServletException {
-    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-    response.setCharacterEncoding("UTF-8");
-    response.setContentType("application/json; charset=utf-8");
-    String jsonMessage = objectMapper.writeValueAsString(
-        ImmutableMap.of("message", exception.getMessage()));
-    response.getWriter().append(jsonMessage);
-    log.info("fail,writeResponse,responseBody={}", jsonMessage);
+    long start = authMetrics.start(AuthMetrics.Stage.FAILURE_HANDLER);
+    try {
+      writeResponse(request, response, exception);
+    } finally {
+      authMetrics.stop(AuthMetrics.Stage.FAILURE_HANDLER, start);
+    }
+    authMetrics.failure(exception);
+  }
+
+  private void writeResponse(HttpServletRequest request, HttpServletResponse response,
+                             AuthenticationException exception) throws IOException {
+    LindJsonResponseWriter.JsonBody jsonMessage = lindJsonResponseWriter.failureBody(exception);
+    int status = HttpServletResponse.SC_UNAUTHORIZED;
+    if (exception instanceof LoginThrottledException) {
+      status = 429;
+      response.setHeader("Retry-After",
+          String.valueOf(((LoginThrottledException) exception).getRetryAfterSeconds()));
+    }
+    lindJsonResponseWriter.write(response, status, jsonMessage);
+    auditLog.record(new AuditEvent(AuditEvent.LOGIN_FAILURE, request.getParameter("username"),
+        request.getRemoteAddr(), exception.getMessage()));
   }
 }
@@ -1,7 +1,13 @@
 package com.lind.webSecurity.config;
 
+import com.google.common.hash.HashCode;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -10,7 +16,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 /**
@@ -28,7 +33,88 @@ public class LindAuthenticationProvider extends AbstractUserDetailsAuthenticatio
   UserDetailsService userDetailsService;
 
   @Autowired
-  private PasswordEncoder passwordEncoder;
+  private LindPasswordEncoder passwordEncoder;
+
+  @Autowired
+  LindUserCache lindUserCache;
+
+  @Autowired
+  LindCredentialCache lindCredentialCache;
+
+  @Autowired
+  LindPasswordUpgrader lindPasswordUpgrader;
+
+  @Autowired
+  LoginThrottle loginThrottle;
+
+  @Autowired
+  AuthMetrics authMetrics;
+
+  @Value("${lind.login.coalesce:true}")
+  boolean coalesce;
+
+  private final ConcurrentMap<HashCode, CompletableFuture<Authentication>> inFlight =
+      new ConcurrentHashMap<>();
+
+  /**
+   * 使用有界的用户缓存替换默认的NullUserCache.
+   */
+  @Override
+  protected void doAfterPropertiesSet() throws Exception {
+    setUserCache(lindUserCache);
+  }
+
+  /**
+   * 先按用户名和来源IP限流，超出限制时直接失败，不查询用户也不执行BCrypt.
+   * 同一用户名和密码的并发请求只认证一次，其余请求等待并共享结果(成功或同一个异常)；
+   * 结果在认证结束时就从inFlight中移除，不会缓存到之后的请求.
+   */
+  @Override
+  public Authentication authenticate(Authentication authentication)
+      throws AuthenticationException {
+    loginThrottle.check(authentication);
+    if (!coalesce || authentication.getName() == null || authentication.getCredentials() == null) {
+      return super.authenticate(authentication);
+    }
+    HashCode key = lindCredentialCache.key(authentication.getName(),
+        authentication.getCredentials().toString());
+    CompletableFuture<Authentication> pending = new CompletableFuture<>();
+    CompletableFuture<Authentication> leader = inFlight.putIfAbsent(key, pending);
+    if (leader == null) {
+      return authenticateAsLeader(authentication, key, pending);
+    }
+    authMetrics.coalesced();
+    Authentication result;
+    try {
+      result = leader.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+    // 每个请求使用自己的token，details和凭证不与其它请求共享
+    UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
+        result.getPrincipal(), authentication.getCredentials(), result.getAuthorities());
+    token.setDetails(authentication.getDetails());
+    return token;
+  }
+
+  private Authentication authenticateAsLeader(Authentication authentication, HashCode key,
+                                              CompletableFuture<Authentication> pending) {
+    Authentication result;
+    try {
+      result = super.authenticate(authentication);
+    } catch (RuntimeException | Error ex) {
+      inFlight.remove(key, pending);
+      pending.completeExceptionally(ex);
+      throw ex;
+    }
+    // 先移除再完成，完成之后到达的请求会重新认证
+    inFlight.remove(key, pending);
+    pending.complete(result);
+    return result;
+  }
 
   /**
    * 校验密码有效性.
@@ -41,6 +127,16 @@ public class LindAuthenticationProvider extends AbstractUserDetailsAuthenticatio
   protected void additionalAuthenticationChecks(
       UserDetails userDetails, UsernamePasswordAuthenticationToken authentication)
       throws AuthenticationException {
+    long start = authMetrics.start(AuthMetrics.Stage.PASSWORD_CHECK);
+    try {
+      checkPassword(userDetails, authentication);
+    } finally {
+      authMetrics.stop(AuthMetrics.Stage.PASSWORD_CHECK, start);
+    }
+  }
+
+  private void checkPassword(
+      UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) {
     if (authentication.getCredentials() == null) {
       logger.debug("Authentication failed: no credentials provided");
 
@@ -51,6 +147,11 @@ public class LindAuthenticationProvider extends AbstractUserDetailsAuthenticatio
     // 当前输入的密码(从filter向下传递的变量)与数据库的密码比较
     String presentedPassword = authentication.getCredentials().toString();
 
+    // 短时间内校验通过过的凭证直接放行，不再执行BCrypt
+    if (lindCredentialCache.isVerified(userDetails, presentedPassword)) {
+      return;
+    }
+
     if (!passwordEncoder.matches(presentedPassword, userDetails.getPassword())) {
       logger.debug("Authentication failed: password does not match stored value");
 
@@ -58,6 +159,12 @@ public class LindAuthenticationProvider extends AbstractUserDetailsAuthenticatio
           "AbstractUserDetailsAuthenticationProvider.badCredentials",
           "Bad credentials"));
     }
+    lindCredentialCache.putVerified(userDetails, presentedPassword);
+
+    // 保存的hash强度与当前校准的强度不一致时，后台重新hash
+    if (passwordEncoder.upgradeEncoding(userDetails.getPassword())) {
+      lindPasswordUpgrader.upgrade(userDetails, presentedPassword);
+    }
   }
 
   /**
@@ -84,12 +191,17 @@ public class LindAuthenticationProvider extends AbstractUserDetailsAuthenticatio
      4.  若通过了所有的检测，那么就判断是否这个UserDetails已经放入到了缓存中，若没有那么就放入到缓存中。
      5.  最后返回一个包含了用户完整信息的UsernamePasswordAuthenticationToken，包括用户名，密码，权限等等。
      */
-    UserDetails loadedUser = userDetailsService.loadUserByUsername(username);
-    if (loadedUser == null) {
-      throw new InternalAuthenticationServiceException(
-          "UserDetailsService returned null, which is an interface contract violation");
+    long start = authMetrics.start(AuthMetrics.Stage.RETRIEVE_USER);
+    try {
+      UserDetails loadedUser = userDetailsService.loadUserByUsername(username);
+      if (loadedUser == null) {
+        throw new InternalAuthenticationServiceException(
+            "UserDetailsService returned null, which is an interface contract violation");
+      }
+      return loadedUser;
+    } finally {
+      authMetrics.stop(AuthMetrics.Stage.RETRIEVE_USER, start);
     }
-    return loadedUser;
   }
 
   /**
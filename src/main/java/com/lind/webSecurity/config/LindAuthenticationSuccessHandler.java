@@ -1,22 +1,34 @@
 package com.lind.webSecurity.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
+import com.lind.webSecurity.audit.AuditEvent;
+import com.lind.webSecurity.audit.AuditLog;
 import java.io.IOException;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
-@Slf4j
 @Component
 public class LindAuthenticationSuccessHandler
     implements org.springframework.security.web.authentication.AuthenticationSuccessHandler {
   @Autowired
-  ObjectMapper objectMapper;
+  LindJsonResponseWriter lindJsonResponseWriter;
+
+  @Autowired
+  AuditLog auditLog;
+
+  @Autowired
+  AuthMetrics authMetrics;
+
+  @Autowired
+  LindTokenService lindTokenService;
+
+  @Value("${lind.token.enabled:false}")
+  boolean tokenEnabled;
 
   /**
    * Called when a user has been successfully authenticated.
@@ -29,12 +41,24 @@ public class LindAuthenticationSuccessHandler
   public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
                                       Authentication authentication)
       throws IOException, ServletException {
-    String method = "onAuthenticationSuccess";
-    response.setStatus(HttpServletResponse.SC_OK);
-    response.setCharacterEncoding("UTF-8");
-    response.setContentType("application/json; charset=utf-8");
-    String jsonMessage = objectMapper.writeValueAsString(ImmutableMap.of("message", "success"));
-    response.getWriter().append(jsonMessage);
-    log.info("success,writeResponse,responseBody={}", jsonMessage);
+    long start = authMetrics.start(AuthMetrics.Stage.SUCCESS_HANDLER);
+    try {
+      writeResponse(request, response, authentication);
+    } finally {
+      authMetrics.stop(AuthMetrics.Stage.SUCCESS_HANDLER, start);
+    }
+    authMetrics.success();
+  }
+
+  private void writeResponse(HttpServletRequest request, HttpServletResponse response,
+                             Authentication authentication) throws IOException {
+    // 无状态模式下返回签名token，后续请求放到Authorization: Bearer头中
+    LindJsonResponseWriter.JsonBody jsonMessage = tokenEnabled
+        ? lindJsonResponseWriter.toJson(ImmutableMap.of(
+            "message", "success", "token", lindTokenService.issue(authentication)))
+        : lindJsonResponseWriter.successBody();
+    lindJsonResponseWriter.write(response, HttpServletResponse.SC_OK, jsonMessage);
+    auditLog.record(new AuditEvent(AuditEvent.LOGIN_SUCCESS, authentication.getName(),
+        request.getRemoteAddr(), null));
   }
 }
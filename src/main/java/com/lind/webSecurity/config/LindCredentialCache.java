@@ -0,0 +1,95 @@
+package com.lind.webSecurity.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.lind.webSecurity.user.UserStoreReloadedEvent;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短时间内验证成功的凭证缓存，重复登录时跳过BCrypt.
+ * key是用户名和密码的HMAC，HMAC密钥启动时随机生成，内存中不保存明文密码；
+ * value记录当时校验通过的密码hash，用户密码变更后hash不同，缓存自然不命中.
+ */
+@Component
+public class LindCredentialCache {
+  private final HashFunction hmac;
+
+  private final Cache<HashCode, Verified> cache;
+
+  public LindCredentialCache(
+      @Value("${lind.auth-cache.max-size:10000}") long maxSize,
+      @Value("${lind.auth-cache.credential-ttl-seconds:60}") long ttlSeconds) {
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    this.hmac = Hashing.hmacSha256(key);
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * 用户名和密码是否在有效期内针对当前的密码hash校验通过过.
+   */
+  public boolean isVerified(UserDetails user, String presentedPassword) {
+    Verified verified = cache.getIfPresent(key(user.getUsername(), presentedPassword));
+    return verified != null && verified.passwordHash.equals(user.getPassword());
+  }
+
+  public void putVerified(UserDetails user, String presentedPassword) {
+    cache.put(key(user.getUsername(), presentedPassword),
+        new Verified(user.getUsername(), user.getPassword()));
+  }
+
+  public void invalidate(String username) {
+    cache.asMap().values().removeIf(verified -> verified.username.equals(username));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * 命中、未命中和淘汰次数.
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @EventListener
+  public void onUserStoreReloaded(UserStoreReloadedEvent event) {
+    invalidateAll();
+  }
+
+  /**
+   * 用户名和密码的HMAC，LindAuthenticationProvider合并并发请求时也用它做key.
+   */
+  HashCode key(String username, String password) {
+    return hmac.newHasher()
+        .putString(username, StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(password, StandardCharsets.UTF_8)
+        .hash();
+  }
+
+  private static final class Verified {
+    private final String username;
+    private final String passwordHash;
+
+    private Verified(String username, String passwordHash) {
+      this.username = username;
+      this.passwordHash = passwordHash;
+    }
+  }
+}
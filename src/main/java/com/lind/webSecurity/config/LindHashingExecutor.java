@@ -0,0 +1,88 @@
+package com.lind.webSecurity.config;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 专门执行密码校验的线程池.
+ * 线程数默认等于CPU核数，队列有界，队列满时直接抛出RejectedExecutionException，由调用方快速拒绝请求.
+ * 记录排队深度、拒绝次数以及任务在队列中的等待时间.
+ */
+@Component
+public class LindHashingExecutor implements DisposableBean {
+  private final ThreadPoolExecutor executor;
+
+  private final LongAdder executedCount = new LongAdder();
+
+  private final LongAdder rejectedCount = new LongAdder();
+
+  private final LongAdder totalWaitNanos = new LongAdder();
+
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  public LindHashingExecutor(
+      @Value("${lind.login.hashing-threads:0}") int threads,
+      @Value("${lind.login.queue-capacity:64}") int queueCapacity) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new ThreadFactoryBuilder().setNameFormat("lind-hashing-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * 提交校验任务.
+   *
+   * @param task .
+   * @throws RejectedExecutionException 队列已满.
+   */
+  public void execute(Runnable task) {
+    long submitted = System.nanoTime();
+    try {
+      executor.execute(() -> {
+        long waited = System.nanoTime() - submitted;
+        totalWaitNanos.add(waited);
+        executedCount.increment();
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        task.run();
+      });
+    } catch (RejectedExecutionException ex) {
+      rejectedCount.increment();
+      throw ex;
+    }
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount.sum();
+  }
+
+  public double getAverageWaitMillis() {
+    long executed = executedCount.sum();
+    return executed == 0 ? 0 : totalWaitNanos.sum() / 1e6 / executed;
+  }
+
+  public double getMaxWaitMillis() {
+    return maxWaitNanos.get() / 1e6;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+}
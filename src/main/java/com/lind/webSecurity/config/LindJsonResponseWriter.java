@@ -0,0 +1,94 @@
+package com.lind.webSecurity.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录成功/失败处理器使用的json输出.
+ * 固定的成功消息启动时序列化成UTF-8字节，失败消息按异常类型和消息缓存，
+ * 直接写getOutputStream()并设置Content-Length，不再每次构建Map、序列化和走Writer的字符编码.
+ */
+@Component
+public class LindJsonResponseWriter {
+  public static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  private final Cache<String, JsonBody> failureBodies = CacheBuilder.newBuilder()
+      .maximumSize(1024)
+      .build();
+
+  private JsonBody successBody;
+
+  @PostConstruct
+  public void init() throws JsonProcessingException {
+    successBody = toJson(ImmutableMap.of("message", "success"));
+  }
+
+  public JsonBody successBody() {
+    return successBody;
+  }
+
+  /**
+   * 失败消息，同一类型和消息的异常只序列化一次.
+   */
+  public JsonBody failureBody(AuthenticationException exception) {
+    String message = exception.getMessage();
+    try {
+      return failureBodies.get(exception.getClass().getName() + '\0' + message,
+          () -> toJson(ImmutableMap.of("message", String.valueOf(message))));
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  /**
+   * 序列化不固定的消息体.
+   */
+  public JsonBody toJson(Object body) throws JsonProcessingException {
+    return new JsonBody(objectMapper.writeValueAsBytes(body));
+  }
+
+  public void write(HttpServletResponse response, int status, JsonBody body) throws IOException {
+    response.setStatus(status);
+    response.setContentType(CONTENT_TYPE);
+    response.setContentLength(body.bytes.length);
+    response.getOutputStream().write(body.bytes);
+  }
+
+  /**
+   * 序列化好的json，toString在需要时才解码，用于日志.
+   */
+  public static final class JsonBody {
+    private final byte[] bytes;
+
+    JsonBody(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    public byte[] getBytes() {
+      return bytes.clone();
+    }
+
+    public int length() {
+      return bytes.length;
+    }
+
+    @Override
+    public String toString() {
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+}
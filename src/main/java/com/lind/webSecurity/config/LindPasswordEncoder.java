@@ -0,0 +1,67 @@
+package com.lind.webSecurity.config;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * 按当前机器性能校准强度的BCrypt编码器.
+ * 启动时测量hash耗时，在单次登录的时间预算内选择最高的强度(log rounds)；
+ * 强度不同于当前值的hash可以通过upgradeEncoding识别出来，在登录成功后重新hash.
+ */
+@Slf4j
+public class LindPasswordEncoder extends BCryptPasswordEncoder {
+  private static final Pattern BCRYPT_STRENGTH = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$");
+
+  private final int strength;
+
+  public LindPasswordEncoder(int strength) {
+    super(strength);
+    this.strength = strength;
+  }
+
+  /**
+   * 测量并选择强度.
+   *
+   * @param latencyBudgetMillis 单次hash允许的耗时.
+   * @param minStrength         最低强度，即使超出预算也不会低于它.
+   * @param maxStrength         最高强度.
+   * @return
+   */
+  public static LindPasswordEncoder calibrate(long latencyBudgetMillis, int minStrength,
+                                              int maxStrength) {
+    BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+    // 第一次调用包含类加载和JIT，不计入
+    probe.encode("calibration");
+    long start = System.nanoTime();
+    probe.encode("calibration");
+    double elapsedMillis = (System.nanoTime() - start) / 1e6;
+
+    // 强度每加1，耗时翻倍
+    int strength = minStrength;
+    double estimated = elapsedMillis;
+    while (strength < maxStrength && estimated * 2 <= latencyBudgetMillis) {
+      strength++;
+      estimated *= 2;
+    }
+    log.info("bcrypt calibrated,strength={},estimatedMillis={},budgetMillis={}",
+        strength, Math.round(estimated), latencyBudgetMillis);
+    return new LindPasswordEncoder(strength);
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  /**
+   * 已保存的hash强度与当前强度不同时返回true.
+   */
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+    Matcher matcher = BCRYPT_STRENGTH.matcher(encodedPassword);
+    return matcher.find() && Integer.parseInt(matcher.group(2)) != strength;
+  }
+}
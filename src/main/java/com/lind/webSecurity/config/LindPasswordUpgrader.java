@@ -0,0 +1,75 @@
+package com.lind.webSecurity.config;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lind.webSecurity.user.UserStore;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录成功后在后台把强度过时的密码hash升级到当前强度.
+ * 单线程执行，队列满时直接丢弃(下次登录会再次触发)，同一用户同时只有一个升级任务.
+ */
+@Slf4j
+@Component
+public class LindPasswordUpgrader implements DisposableBean {
+  private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L,
+      TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100),
+      new ThreadFactoryBuilder().setNameFormat("lind-rehash-%d").setDaemon(true).build(),
+      new ThreadPoolExecutor.AbortPolicy());
+
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  LindPasswordEncoder passwordEncoder;
+
+  @Autowired
+  UserStore userStore;
+
+  @Autowired
+  LindUserCache lindUserCache;
+
+  /**
+   * 提交升级任务.
+   *
+   * @param user              登录成功的用户.
+   * @param presentedPassword 已经校验通过的明文密码.
+   */
+  public void upgrade(UserDetails user, String presentedPassword) {
+    String username = user.getUsername();
+    String oldHash = user.getPassword();
+    if (!pending.add(username)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          if (userStore.updatePassword(username, oldHash,
+              passwordEncoder.encode(presentedPassword))) {
+            lindUserCache.removeUserFromCache(username);
+            log.info("password rehashed,username={},strength={}", username,
+                passwordEncoder.getStrength());
+          }
+        } finally {
+          pending.remove(username);
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      pending.remove(username);
+      log.debug("rehash queue is full,username={}", username);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,82 @@
+package com.lind.webSecurity.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.lind.webSecurity.user.UserStoreReloadedEvent;
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * /auth返回的当前用户json，按用户名和版本号缓存序列化后的字节.
+ * 版本号是权限和账号状态的hash，用户记录或权限变化后key不同，重新序列化，命中次数只统计版本一致的请求；
+ * 旧版本的条目不再被访问，由数量上限淘汰，用户仓库重新加载时全部失效.
+ */
+@Component
+public class LindPrincipalJsonCache {
+  @Autowired
+  ObjectMapper objectMapper;
+
+  private final Cache<String, byte[]> cache;
+
+  public LindPrincipalJsonCache(@Value("${lind.auth-cache.json-max-size:10000}") long maxSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * 序列化后的json，返回的数组是共享的，调用方不能修改.
+   */
+  public byte[] toJson(UserDetails user) throws JsonProcessingException {
+    String key = user.getUsername() + '\0' + version(user);
+    byte[] json = cache.getIfPresent(key);
+    if (json == null) {
+      json = objectMapper.writeValueAsBytes(user);
+      cache.put(key, json);
+    }
+    return json;
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * 命中、未命中和淘汰次数.
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @EventListener
+  public void onUserStoreReloaded(UserStoreReloadedEvent event) {
+    invalidateAll();
+  }
+
+  /**
+   * 用户json中随用户变化的只有权限和几个账号状态，用户名已经是key.
+   */
+  private static long version(UserDetails user) {
+    Hasher hasher = Hashing.murmur3_128().newHasher()
+        .putString(user.getClass().getName(), StandardCharsets.UTF_8)
+        .putBoolean(user.isEnabled())
+        .putBoolean(user.isAccountNonExpired())
+        .putBoolean(user.isAccountNonLocked())
+        .putBoolean(user.isCredentialsNonExpired());
+    for (GrantedAuthority authority : user.getAuthorities()) {
+      hasher.putByte((byte) 0).putString(String.valueOf(authority.getAuthority()), StandardCharsets.UTF_8);
+    }
+    return hasher.hash().asLong();
+  }
+}
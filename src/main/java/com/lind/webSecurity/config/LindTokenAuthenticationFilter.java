@@ -0,0 +1,38 @@
+package com.lind.webSecurity.config;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 无状态模式下从Authorization: Bearer头中读取token并写入SecurityContext.
+ * token无效时不做处理，后续由FilterSecurityInterceptor按未登录处理.
+ */
+public class LindTokenAuthenticationFilter extends OncePerRequestFilter {
+  private static final String BEARER = "Bearer ";
+
+  private final LindTokenService tokenService;
+
+  public LindTokenAuthenticationFilter(LindTokenService tokenService) {
+    this.tokenService = tokenService;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    String header = request.getHeader("Authorization");
+    if (header != null && header.startsWith(BEARER)
+        && SecurityContextHolder.getContext().getAuthentication() == null) {
+      Authentication authentication = tokenService.verify(header.substring(BEARER.length()));
+      if (authentication != null) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+}
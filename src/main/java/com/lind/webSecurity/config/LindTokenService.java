@@ -0,0 +1,165 @@
+package com.lind.webSecurity.config;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.lind.webSecurity.user.AuthorityRegistry;
+import com.lind.webSecurity.user.UserRecord;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * 无状态模式使用的签名token.
+ * token格式：base64url(用户名\n过期时间\n权限1,权限2).base64url(HMAC-SHA256)，
+ * 校验时只做签名和过期检查，不查用户仓库也不执行BCrypt，解析结果按token缓存.
+ * 多个节点需要配置相同的lind.token.secret，不配置时每次启动随机生成.
+ * lind.token.secret是Base64(标准字母表)编码的HMAC密钥，建议至少32字节，例如openssl rand -base64 32的输出；
+ * 不是合法的Base64时启动失败.
+ */
+@Slf4j
+@Component
+public class LindTokenService {
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final AuthorityRegistry authorityRegistry;
+
+  private final HashFunction hmac;
+
+  private final long ttlSeconds;
+
+  private final Cache<String, VerifiedToken> verified;
+
+  public LindTokenService(
+      AuthorityRegistry authorityRegistry,
+      @Value("${lind.token.secret:}") String secret,
+      @Value("${lind.token.ttl-seconds:3600}") long ttlSeconds,
+      @Value("${lind.token.cache-size:10000}") long cacheSize) {
+    this.authorityRegistry = authorityRegistry;
+    byte[] key;
+    if (Strings.isNullOrEmpty(secret)) {
+      key = new byte[32];
+      new SecureRandom().nextBytes(key);
+      log.warn("lind.token.secret is not set, tokens are only valid on this instance");
+    } else {
+      try {
+        key = Base64.getDecoder().decode(secret);
+      } catch (IllegalArgumentException ex) {
+        throw new IllegalArgumentException(
+            "lind.token.secret must be Base64 encoded, e.g. the output of openssl rand -base64 32", ex);
+      }
+      if (key.length == 0) {
+        throw new IllegalArgumentException("lind.token.secret must not decode to an empty key");
+      }
+    }
+    this.hmac = Hashing.hmacSha256(key);
+    this.ttlSeconds = ttlSeconds;
+    this.verified = CacheBuilder.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * 为登录成功的用户签发token.
+   */
+  public String issue(Authentication authentication) {
+    List<String> authorities = new ArrayList<>();
+    for (GrantedAuthority authority : authentication.getAuthorities()) {
+      authorities.add(authority.getAuthority());
+    }
+    long expires = System.currentTimeMillis() / 1000 + ttlSeconds;
+    byte[] payload = (authentication.getName() + "\n" + expires + "\n"
+        + Joiner.on(',').join(authorities)).getBytes(StandardCharsets.UTF_8);
+    return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+  }
+
+  /**
+   * 校验token，签名错误、格式错误或已过期时返回null.
+   */
+  public Authentication verify(String token) {
+    VerifiedToken verifiedToken = verified.getIfPresent(token);
+    if (verifiedToken == null) {
+      verifiedToken = parse(token);
+      if (verifiedToken == null) {
+        return null;
+      }
+      verified.put(token, verifiedToken);
+    }
+    if (verifiedToken.expires < System.currentTimeMillis() / 1000) {
+      verified.invalidate(token);
+      return null;
+    }
+    return verifiedToken.authentication;
+  }
+
+  private VerifiedToken parse(String token) {
+    int dot = token.indexOf('.');
+    if (dot < 0) {
+      return null;
+    }
+    byte[] payload;
+    byte[] signature;
+    try {
+      payload = DECODER.decode(token.substring(0, dot));
+      signature = DECODER.decode(token.substring(dot + 1));
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+    if (!MessageDigest.isEqual(sign(payload), signature)) {
+      return null;
+    }
+    List<String> fields = Splitter.on('\n').splitToList(new String(payload, StandardCharsets.UTF_8));
+    if (fields.size() != 3) {
+      return null;
+    }
+    List<GrantedAuthority> authorities = new ArrayList<>();
+    for (String authority : Splitter.on(',').omitEmptyStrings().split(fields.get(2))) {
+      authorities.add(new SimpleGrantedAuthority(authority));
+    }
+    UserRecord principal = new UserRecord(fields.get(0), null, authorities,
+        authorityRegistry.internMask(authorities));
+    long expires;
+    try {
+      expires = Long.parseLong(fields.get(1));
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+    return new VerifiedToken(
+        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()), expires);
+  }
+
+  private byte[] sign(byte[] payload) {
+    return hmac.hashBytes(payload).asBytes();
+  }
+
+  /**
+   * 缓存的校验结果：认证信息和token中的过期时间(秒).
+   */
+  private static final class VerifiedToken {
+    final Authentication authentication;
+    final long expires;
+
+    VerifiedToken(Authentication authentication, long expires) {
+      this.authentication = authentication;
+      this.expires = expires;
+    }
+  }
+}
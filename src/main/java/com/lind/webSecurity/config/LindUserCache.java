@@ -0,0 +1,65 @@
+package com.lind.webSecurity.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.lind.webSecurity.user.UserStoreReloadedEvent;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * provider使用的UserDetails缓存，替换默认的NullUserCache.
+ * 按数量和写入时间淘汰，用户仓库重新加载时全部失效.
+ */
+@Slf4j
+@Component
+public class LindUserCache implements UserCache {
+  private final Cache<String, UserDetails> cache;
+
+  public LindUserCache(
+      @Value("${lind.auth-cache.max-size:10000}") long maxSize,
+      @Value("${lind.auth-cache.user-ttl-seconds:300}") long ttlSeconds) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+  }
+
+  @Override
+  public UserDetails getUserFromCache(String username) {
+    return cache.getIfPresent(username);
+  }
+
+  @Override
+  public void putUserInCache(UserDetails user) {
+    cache.put(user.getUsername(), user);
+  }
+
+  @Override
+  public void removeUserFromCache(String username) {
+    cache.invalidate(username);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * 命中、未命中和淘汰次数.
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @EventListener
+  public void onUserStoreReloaded(UserStoreReloadedEvent event) {
+    invalidateAll();
+    log.debug("user cache invalidated after user store reload");
+  }
+}
@@ -1,9 +1,19 @@
 package com.lind.webSecurity.config;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -19,22 +29,85 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
  * 整体流程：
  * 1.用户登录时，先经过自定义的passcard_filter过滤器，该过滤器继承了AbstractAuthenticationProcessingFilter，并且绑定了登录失败和成功时需要的处理器(跳转页面使用)
  * 2.执行attemptAuthentication方法，可以通过request获取登录页面传递的参数，实现自己的逻辑，并且把对应参数set到AbstractAuthenticationToken的实现类中
- * 3.验证逻辑走完后，调用 this.getAuthenticationManager().authenticate(token);方法，执行AuthenticationProvider的实现类的supports方法
+ * 3.验证逻辑走完后，调用 this.getAuthenticationManager().authenticate(token);方法，执行AuthenticationProvider的实现类的supports方法
  * 4.如果返回true则继续执行authenticate方法
  * 5.在authenticate方法中，首先可以根据用户名获取到用户信息，再者可以拿自定义参数和用户信息做逻辑验证，如密码的验证
  * 6.自定义验证通过以后，获取用户权限set到User中，用于springSecurity做权限验证
  * 7.this.getAuthenticationManager().authenticate(token)方法执行完后，会返回Authentication，如果不为空，则说明验证通过
  * 8.验证通过后，可实现自定义逻辑操作，如记录cookie信息
  * 9.attemptAuthentication方法执行完成后，由springSecuriy来进行对应权限验证，成功于否会跳转到相对应处理器设置的界面。
+ * <p>
+ * 异步模式(设置了hashingExecutor)：
+ * 1.REQUEST请求开启Servlet 3异步，把authenticate提交到LindHashingExecutor，tomcat线程立即释放
+ * 2.校验完成后把结果放到request属性中，再dispatch回容器
+ * 3.ASYNC请求重新经过过滤器链，attemptAuthentication直接返回上一步的结果，成功失败处理与同步模式一致
+ * 4.线程池队列已满时不做任何校验，按LoginThrottledException交给失败handler，返回429和Retry-After并记录审计和指标
+ * 5.超过lind.login.async-timeout时按认证失败返回；还没开始的校验被跳过，正在计算的BCrypt不能中断，会算完后丢弃
  */
 public class LindUserNameAuthenticationFilter extends AbstractAuthenticationProcessingFilter {
+  private static final String ASYNC_RESULT =
+      LindUserNameAuthenticationFilter.class.getName() + ".ASYNC_RESULT";
+
+  private LindHashingExecutor hashingExecutor;
+
+  private AuthMetrics authMetrics;
+
+  private long asyncTimeout = 10000;
+
+  private int retryAfterSeconds = 1;
 
   public LindUserNameAuthenticationFilter() {
     super(new AntPathRequestMatcher("/login", "GET"));
   }
 
+  @Override
+  public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+      throws IOException, ServletException {
+    HttpServletRequest request = (HttpServletRequest) req;
+    HttpServletResponse response = (HttpServletResponse) res;
+    if (hashingExecutor != null
+        && request.getDispatcherType() == DispatcherType.REQUEST
+        && request.isAsyncSupported()
+        && requiresAuthentication(request, response)
+        && request.getParameter("username") != null
+        && request.getParameter("password") != null) {
+      startAsyncAuthentication(request, response);
+      return;
+    }
+    super.doFilter(req, res, chain);
+  }
+
   @Override
   public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response) throws AuthenticationException, IOException, ServletException {
+    Object asyncResult = request.getAttribute(ASYNC_RESULT);
+    if (asyncResult != null) {
+      request.removeAttribute(ASYNC_RESULT);
+      if (asyncResult instanceof AuthenticationException) {
+        throw (AuthenticationException) asyncResult;
+      }
+      return (Authentication) asyncResult;
+    }
+
+    // 向request上下文写授权信息，需要在provider时进行校验它的合法性
+    return authenticate(buildAuthenticationRequest(request));
+  }
+
+  /**
+   * 同步和异步模式共用，记录认证耗时.
+   */
+  private Authentication authenticate(UsernamePasswordAuthenticationToken authRequest) {
+    if (authMetrics == null) {
+      return this.getAuthenticationManager().authenticate(authRequest);
+    }
+    long start = authMetrics.start(AuthMetrics.Stage.FILTER);
+    try {
+      return this.getAuthenticationManager().authenticate(authRequest);
+    } finally {
+      authMetrics.stop(AuthMetrics.Stage.FILTER, start);
+    }
+  }
+
+  private UsernamePasswordAuthenticationToken buildAuthenticationRequest(HttpServletRequest request) {
     String username = request.getParameter("username");
     String password = request.getParameter("password");
 
@@ -50,8 +123,88 @@ public class LindUserNameAuthenticationFilter extends AbstractAuthenticationProc
         username, password);
 
     authRequest.setDetails(authenticationDetailsSource.buildDetails(request));
+    return authRequest;
+  }
 
-    // 向request上下文写授权信息，需要在provider时进行校验它的合法性
-    return this.getAuthenticationManager().authenticate(authRequest);
+  /**
+   * 在校验线程池中执行authenticate，完成后dispatch回容器.
+   */
+  private void startAsyncAuthentication(HttpServletRequest request, HttpServletResponse response)
+      throws IOException, ServletException {
+    UsernamePasswordAuthenticationToken authRequest = buildAuthenticationRequest(request);
+    AsyncContext asyncContext = request.startAsync(request, response);
+    asyncContext.setTimeout(asyncTimeout);
+    AtomicBoolean done = new AtomicBoolean();
+    asyncContext.addListener(new AsyncListener() {
+      @Override
+      public void onComplete(AsyncEvent event) {
+      }
+
+      @Override
+      public void onTimeout(AsyncEvent event) {
+        if (done.compareAndSet(false, true)) {
+          request.setAttribute(ASYNC_RESULT,
+              new AuthenticationServiceException("Authentication timed out"));
+          asyncContext.dispatch();
+        }
+      }
+
+      @Override
+      public void onError(AsyncEvent event) {
+      }
+
+      @Override
+      public void onStartAsync(AsyncEvent event) {
+      }
+    });
+
+    try {
+      hashingExecutor.execute(() -> {
+        // 已经超时的请求还在队列中时不再校验，直接让出线程；
+        // 已经开始的BCrypt无法中断，会继续占用线程直到算完，结果丢弃
+        if (done.get()) {
+          return;
+        }
+        Object result;
+        try {
+          result = authenticate(authRequest);
+        } catch (AuthenticationException ex) {
+          result = ex;
+        } catch (RuntimeException ex) {
+          logger.error("An internal error occurred while trying to authenticate the user.", ex);
+          result = new InternalAuthenticationServiceException(ex.getMessage(), ex);
+        }
+        if (done.compareAndSet(false, true)) {
+          request.setAttribute(ASYNC_RESULT, result);
+          asyncContext.dispatch();
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      // 校验线程池已满，快速拒绝；和限流一样经过失败handler
+      if (done.compareAndSet(false, true)) {
+        unsuccessfulAuthentication(request, response,
+            new LoginThrottledException("Too many login requests", retryAfterSeconds));
+        asyncContext.complete();
+      }
+    }
+  }
+
+  /**
+   * 设置后启用异步登录模式.
+   */
+  public void setHashingExecutor(LindHashingExecutor hashingExecutor) {
+    this.hashingExecutor = hashingExecutor;
+  }
+
+  public void setAuthMetrics(AuthMetrics authMetrics) {
+    this.authMetrics = authMetrics;
+  }
+
+  public void setAsyncTimeout(long asyncTimeout) {
+    this.asyncTimeout = asyncTimeout;
+  }
+
+  public void setRetryAfterSeconds(int retryAfterSeconds) {
+    this.retryAfterSeconds = retryAfterSeconds;
   }
 }
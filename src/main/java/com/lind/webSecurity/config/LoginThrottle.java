@@ -0,0 +1,128 @@
+package com.lind.webSecurity.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按用户名和来源IP限制登录频率，在LindAuthenticationProvider做任何hash之前检查.
+ * 每个key一个令牌桶(GCRA算法，只有一个AtomicLong，CAS更新无锁)，桶放在按访问时间淘汰的Guava缓存中，
+ * 空闲的key会被清理，key的数量有上限.
+ */
+@Component
+public class LoginThrottle {
+  private final boolean enabled;
+
+  private final Limit usernameLimit;
+
+  private final Limit addressLimit;
+
+  public LoginThrottle(
+      @Value("${lind.throttle.enabled:true}") boolean enabled,
+      @Value("${lind.throttle.username.per-minute:30}") int usernamePerMinute,
+      @Value("${lind.throttle.username.burst:10}") int usernameBurst,
+      @Value("${lind.throttle.address.per-minute:300}") int addressPerMinute,
+      @Value("${lind.throttle.address.burst:50}") int addressBurst,
+      @Value("${lind.throttle.idle-seconds:600}") long idleSeconds,
+      @Value("${lind.throttle.max-keys:1000000}") long maxKeys) {
+    this.enabled = enabled;
+    this.usernameLimit = new Limit(usernamePerMinute, usernameBurst, idleSeconds, maxKeys);
+    this.addressLimit = new Limit(addressPerMinute, addressBurst, idleSeconds, maxKeys);
+  }
+
+  /**
+   * 占用一次登录尝试，超出限制时抛出异常.
+   *
+   * @throws LoginThrottledException .
+   */
+  public void check(Authentication authentication) {
+    if (!enabled) {
+      return;
+    }
+    String address = remoteAddress(authentication.getDetails());
+    if (address != null) {
+      addressLimit.acquire(address);
+    }
+    String username = authentication.getName();
+    if (username != null) {
+      usernameLimit.acquire(username);
+    }
+  }
+
+  /**
+   * servlet登录的details是WebAuthenticationDetails，WebFlux登录直接放InetSocketAddress.
+   */
+  private static String remoteAddress(Object details) {
+    if (details instanceof WebAuthenticationDetails) {
+      return ((WebAuthenticationDetails) details).getRemoteAddress();
+    }
+    if (details instanceof InetSocketAddress) {
+      InetSocketAddress address = (InetSocketAddress) details;
+      return address.getAddress() == null ? address.getHostString() : address.getAddress().getHostAddress();
+    }
+    return null;
+  }
+
+  private static final class Limit {
+    private final long intervalNanos;
+
+    private final long toleranceNanos;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private Limit(int perMinute, int burst, long idleSeconds, long maxKeys) {
+      this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+      this.toleranceNanos = intervalNanos * (burst - 1);
+      this.buckets = CacheBuilder.newBuilder()
+          .expireAfterAccess(idleSeconds, TimeUnit.SECONDS)
+          .maximumSize(maxKeys)
+          .build();
+    }
+
+    private void acquire(String key) {
+      TokenBucket bucket;
+      try {
+        bucket = buckets.get(key, TokenBucket::new);
+      } catch (ExecutionException ex) {
+        throw new IllegalStateException(ex.getCause());
+      }
+      long waitNanos = bucket.tryAcquire(System.nanoTime(), intervalNanos, toleranceNanos);
+      if (waitNanos > 0) {
+        // 向上取整，客户端按Retry-After重试时不会再次被拒绝
+        throw new LoginThrottledException("Too many login attempts",
+            (waitNanos + 999_999_999L) / 1_000_000_000L);
+      }
+    }
+  }
+
+  /**
+   * GCRA令牌桶：记录下一个请求的理论到达时间，允许提前tolerance到达.
+   */
+  private static final class TokenBucket {
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+    /**
+     * @return 0表示获取成功，否则是需要等待的纳秒数.
+     */
+    private long tryAcquire(long now, long interval, long tolerance) {
+      for (;;) {
+        long current = theoreticalArrival.get();
+        long next = Math.max(current, now) + interval;
+        long ahead = next - now - interval;
+        if (ahead > tolerance) {
+          return ahead - tolerance;
+        }
+        if (theoreticalArrival.compareAndSet(current, next)) {
+          return 0;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.lind.webSecurity.config;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * 登录尝试过于频繁，在执行任何密码校验之前抛出.
+ */
+public class LoginThrottledException extends AuthenticationException {
+  private static final long serialVersionUID = 1L;
+
+  private final long retryAfterSeconds;
+
+  public LoginThrottledException(String msg, long retryAfterSeconds) {
+    super(msg);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
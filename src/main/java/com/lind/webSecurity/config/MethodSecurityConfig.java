@@ -0,0 +1,39 @@
+package com.lind.webSecurity.config;
+
+import com.lind.webSecurity.user.AuthorityRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+import org.springframework.security.access.vote.AbstractAccessDecisionManager;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+
+/**
+ * @EnableGlobalMethodSecurity注解表示开启@PreAuthorize,@PostAuthorize, @Secured.
+ * 简单的hasAuthority/hasRole规则在启动时编译成掩码，由CompiledAuthorityVoter判断，不再每次执行SpEL；
+ * 其它表达式仍然走默认的PreInvocationAuthorizationAdviceVoter.
+ */
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+public class MethodSecurityConfig extends GlobalMethodSecurityConfiguration {
+  @Autowired
+  AuthorityRegistry authorityRegistry;
+
+  @Override
+  protected MethodSecurityMetadataSource customMethodSecurityMetadataSource() {
+    return new CompiledAuthorityMetadataSource(authorityRegistry);
+  }
+
+  @Override
+  protected AccessDecisionManager accessDecisionManager() {
+    List<AccessDecisionVoter<?>> voters = new ArrayList<>();
+    voters.add(new CompiledAuthorityVoter(authorityRegistry));
+    voters.addAll(((AbstractAccessDecisionManager) super.accessDecisionManager()).getDecisionVoters());
+    return new AffirmativeBased(voters);
+  }
+}
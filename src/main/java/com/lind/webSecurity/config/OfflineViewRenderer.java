@@ -0,0 +1,183 @@
+package com.lind.webSecurity.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.View;
+
+/**
+ * 不依赖真实请求渲染视图，用于RenderedViewResolver的预热和填充缓存.
+ * 请求和响应都是只实现了渲染所需方法的代理：没有参数、header、cookie和session，
+ * 所以渲染结果不会带上某个用户的信息(例如CSRF token、jsessionid).
+ */
+final class OfflineViewRenderer {
+  private OfflineViewRenderer() {
+  }
+
+  static Rendered render(View view, WebApplicationContext context, Locale locale) throws Exception {
+    ServletContext servletContext = context.getServletContext();
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, context);
+    HttpServletRequest request = proxy(HttpServletRequest.class, (method, args) -> {
+      switch (method.getName()) {
+        case "getContextPath":
+          return servletContext.getContextPath();
+        case "getServletContext":
+          return servletContext;
+        case "getLocale":
+          return locale;
+        case "getLocales":
+          return Collections.enumeration(Collections.singletonList(locale));
+        case "getRequestURI":
+          return servletContext.getContextPath() + "/";
+        case "getServletPath":
+          return "/";
+        case "getMethod":
+          return "GET";
+        case "getDispatcherType":
+          return DispatcherType.REQUEST;
+        case "getAttribute":
+          return attributes.get(args[0]);
+        case "setAttribute":
+          attributes.put((String) args[0], args[1]);
+          return null;
+        case "removeAttribute":
+          attributes.remove(args[0]);
+          return null;
+        case "getAttributeNames":
+          return Collections.enumeration(attributes.keySet());
+        case "getParameterMap":
+          return Collections.emptyMap();
+        case "getParameterNames":
+        case "getHeaderNames":
+        case "getHeaders":
+          return Collections.emptyEnumeration();
+        default:
+          return null;
+      }
+    });
+
+    Rendered rendered = new Rendered();
+    HttpServletResponse response = proxy(HttpServletResponse.class, (method, args) -> {
+      switch (method.getName()) {
+        case "encodeURL":
+        case "encodeRedirectURL":
+          return args[0];
+        case "setContentType":
+          rendered.contentType = (String) args[0];
+          int charset = rendered.contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+          if (charset >= 0) {
+            rendered.charset = Charset.forName(rendered.contentType.substring(charset + 8).trim());
+          }
+          return null;
+        case "getContentType":
+          return rendered.contentType;
+        case "setCharacterEncoding":
+          rendered.charset = Charset.forName((String) args[0]);
+          return null;
+        case "getCharacterEncoding":
+          return rendered.charset.name();
+        case "getLocale":
+          return locale;
+        case "getWriter":
+          if (rendered.writer == null) {
+            rendered.writer = new PrintWriter(new OutputStreamWriter(rendered.body, rendered.charset));
+          }
+          return rendered.writer;
+        case "getOutputStream":
+          return rendered.outputStream();
+        default:
+          return null;
+      }
+    });
+
+    view.render(Collections.emptyMap(), request, response);
+    if (rendered.writer != null) {
+      rendered.writer.flush();
+    }
+    return rendered;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<T> type, Handler handler) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> {
+          if (method.getDeclaringClass() == Object.class) {
+            return method.getName().equals("equals") ? proxy == args[0]
+                : method.getName().equals("hashCode") ? System.identityHashCode(proxy)
+                : type.getSimpleName();
+          }
+          Object result = handler.invoke(method, args);
+          return result == null ? defaultValue(method.getReturnType()) : result;
+        });
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    return null;
+  }
+
+  private interface Handler {
+    Object invoke(Method method, Object[] args) throws Exception;
+  }
+
+  /**
+   * 渲染结果.
+   */
+  static final class Rendered {
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+    private Charset charset = StandardCharsets.ISO_8859_1;
+    private String contentType;
+    private PrintWriter writer;
+
+    byte[] getBody() {
+      return body.toByteArray();
+    }
+
+    String getContentType() {
+      return contentType;
+    }
+
+    private ServletOutputStream outputStream() {
+      return new ServletOutputStream() {
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+
+        @Override
+        public void write(int b) {
+          body.write(b);
+        }
+      };
+    }
+  }
+}
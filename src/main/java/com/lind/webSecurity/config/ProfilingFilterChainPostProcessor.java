@@ -0,0 +1,39 @@
+package com.lind.webSecurity.config;
+
+import javax.servlet.ServletException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.stereotype.Component;
+
+/**
+ * lind.filter-profile.enabled=true时把springSecurityFilterChain换成FilterChainProfiler包装后的链.
+ * 包装有额外开销，只在排查性能问题时打开.
+ * FilterChainProfiler依赖MeterRegistry，通过ObjectProvider在用到时才获取，避免MeterRegistry提前创建.
+ */
+@Slf4j
+@Component
+public class ProfilingFilterChainPostProcessor implements BeanPostProcessor {
+  @Autowired
+  ObjectProvider<FilterChainProfiler> filterChainProfiler;
+
+  @Value("${lind.filter-profile.enabled:false}")
+  boolean enabled;
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!enabled || !(bean instanceof FilterChainProxy)) {
+      return bean;
+    }
+    try {
+      log.info("profiling security filter chain {}", beanName);
+      return filterChainProfiler.getObject().profile((FilterChainProxy) bean);
+    } catch (ServletException ex) {
+      throw new BeanInitializationException("failed to profile " + beanName, ex);
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package com.lind.webSecurity.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.thymeleaf.spring5.view.ThymeleafViewResolver;
+
+/**
+ * 内容不随用户和locale变化的页面，渲染一次后缓存UTF-8字节(以及gzip后的字节)，按视图名区分.
+ * locale来自客户端的Accept-Language，按locale缓存会让任意客户端撑大缓存，所以统一按默认locale渲染；
+ * 使用了国际化消息的视图不能放进lind.view-cache.views.
+ * 响应带强ETag和Cache-Control: private, no-cache，If-None-Match命中时返回304.
+ * login和logout页面包含CSRF token和当前用户名，不能缓存，所以只缓存lind.view-cache.views中列出的视图.
+ * spring.thymeleaf.cache=false(开发模式，模板修改后重新加载)时不缓存，每次交给thymeleaf渲染.
+ */
+@Slf4j
+@Component
+public class RenderedViewResolver implements ViewResolver, Ordered {
+  @Autowired
+  ThymeleafViewResolver thymeleafViewResolver;
+
+  @Autowired
+  WebApplicationContext webApplicationContext;
+
+  private final boolean enabled;
+  private final boolean gzip;
+  private final Set<String> viewNames;
+  private final Cache<String, RenderedView> views;
+
+  public RenderedViewResolver(
+      @Value("${lind.view-cache.enabled:true}") boolean enabled,
+      @Value("${spring.thymeleaf.cache:true}") boolean templateCache,
+      @Value("${lind.view-cache.gzip:true}") boolean gzip,
+      @Value("${lind.view-cache.views:index,hello}") String[] viewNames) {
+    this.enabled = enabled && templateCache;
+    this.gzip = gzip;
+    this.viewNames = new HashSet<>(Arrays.asList(viewNames));
+    this.views = CacheBuilder.newBuilder().maximumSize(this.viewNames.size()).build();
+  }
+
+  @Override
+  public View resolveViewName(String viewName, Locale locale) throws Exception {
+    if (!enabled || !viewNames.contains(viewName)) {
+      return null;
+    }
+    RenderedView view = views.getIfPresent(viewName);
+    if (view == null) {
+      View delegate = thymeleafViewResolver.resolveViewName(viewName, Locale.getDefault());
+      if (delegate == null) {
+        return null;
+      }
+      view = views.asMap().computeIfAbsent(viewName, key -> new RenderedView(delegate));
+    }
+    return view;
+  }
+
+  /**
+   * 启动后按默认locale预先渲染，失败时留到第一次请求再渲染.
+   * lind.view-cache.warm-up=false时不预先渲染；条件在取bean之前判断，延迟初始化时也不会因此创建thymeleaf.
+   */
+  @EventListener(value = ApplicationReadyEvent.class,
+      condition = "@environment.getProperty('lind.view-cache.warm-up', 'true') == 'true'")
+  public void warmUp() {
+    if (!enabled) {
+      return;
+    }
+    for (String viewName : viewNames) {
+      try {
+        RenderedView view = (RenderedView) resolveViewName(viewName, Locale.getDefault());
+        if (view != null) {
+          view.page();
+        }
+      } catch (Exception ex) {
+        log.warn("view {} warm-up failed: {}", viewName, ex.toString());
+      }
+    }
+  }
+
+  public void invalidateAll() {
+    views.invalidateAll();
+  }
+
+  /**
+   * 在ContentNegotiatingViewResolver之后、thymeleaf之前.
+   */
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE + 1;
+  }
+
+  private final class RenderedView implements View {
+    private final View delegate;
+    private volatile Page page;
+
+    RenderedView(View delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public String getContentType() {
+      return delegate.getContentType();
+    }
+
+    @Override
+    public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+        throws Exception {
+      // controller放了数据时输出可能不同，交给thymeleaf
+      if (model != null && !model.isEmpty()) {
+        delegate.render(model, request, response);
+        return;
+      }
+      Page current;
+      try {
+        current = page();
+      } catch (Exception ex) {
+        log.warn("view render for cache failed, rendering directly: {}", ex.toString());
+        delegate.render(model, request, response);
+        return;
+      }
+      boolean gzipped = current.gzipBody != null && acceptsGzip(request);
+      String etag = gzipped ? current.gzipEtag : current.etag;
+      response.setHeader(HttpHeaders.ETAG, etag);
+      response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+      if (current.gzipBody != null) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      }
+      if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return;
+      }
+      byte[] body = gzipped ? current.gzipBody : current.body;
+      if (gzipped) {
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      }
+      response.setContentType(current.contentType);
+      response.setContentLength(body.length);
+      response.getOutputStream().write(body);
+    }
+
+    Page page() throws Exception {
+      Page current = page;
+      if (current == null) {
+        synchronized (this) {
+          current = page;
+          if (current == null) {
+            OfflineViewRenderer.Rendered rendered =
+                OfflineViewRenderer.render(delegate, webApplicationContext, Locale.getDefault());
+            current = new Page(rendered.getBody(), rendered.getContentType(), gzip);
+            page = current;
+          }
+        }
+      }
+      return current;
+    }
+  }
+
+  private static boolean acceptsGzip(HttpServletRequest request) {
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    return acceptEncoding != null && acceptEncoding.contains("gzip");
+  }
+
+  /**
+   * If-None-Match使用弱比较，W/前缀忽略.
+   */
+  private static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Page {
+    private final byte[] body;
+    private final String etag;
+    private final byte[] gzipBody;
+    private final String gzipEtag;
+    private final String contentType;
+
+    Page(byte[] body, String contentType, boolean gzip) throws IOException {
+      this.body = body;
+      this.contentType = contentType;
+      this.etag = etag(body);
+      byte[] compressed = gzip ? gzip(body) : null;
+      // 压缩后没有变小就不提供gzip版本
+      this.gzipBody = compressed != null && compressed.length < body.length ? compressed : null;
+      this.gzipEtag = gzipBody == null ? null : etag(gzipBody);
+    }
+
+    private static String etag(byte[] bytes) {
+      return '"' + Hashing.sha256().hashBytes(bytes).toString().substring(0, 32) + '"';
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+        gzip.write(bytes);
+      }
+      return out.toByteArray();
+    }
+  }
+}
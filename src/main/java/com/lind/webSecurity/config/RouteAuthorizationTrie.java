@@ -0,0 +1,207 @@
+package com.lind.webSecurity.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+
+/**
+ * 按路径段编译的路由授权规则.
+ * 规则按添加顺序编号，匹配时取编号最小的规则，与antMatchers的先匹配先生效一致；
+ * 查找代价只和路径深度有关，不随规则数量增长.
+ * 支持的模式：字面量段、匹配单个段的*、以及只能出现在末尾的**(匹配零个或多个段，/admin/**同样匹配/admin).
+ * 其它ant语法(?、*.css、{var})在编译时直接拒绝.
+ */
+public class RouteAuthorizationTrie {
+  private static final int NONE = Integer.MAX_VALUE;
+  private static final String PERMIT_ALL = "IS_AUTHENTICATED_ANONYMOUSLY";
+
+  private final Node root = new Node();
+  private final Map<Integer, Collection<ConfigAttribute>> attributes = new HashMap<>();
+  private final Map<Integer, String> patterns = new HashMap<>();
+  private int rules;
+
+  /**
+   * 添加一条规则，多个模式共用同一组权限.
+   */
+  public RouteAuthorizationTrie rule(String[] patterns, String... configAttributes) {
+    Collection<ConfigAttribute> list = SecurityConfig.createList(configAttributes);
+    for (String pattern : patterns) {
+      int index = rules++;
+      attributes.put(index, list);
+      this.patterns.put(index, pattern);
+      insert(pattern, index);
+    }
+    return this;
+  }
+
+  public RouteAuthorizationTrie permitAll(String... patterns) {
+    return rule(patterns, PERMIT_ALL);
+  }
+
+  public RouteAuthorizationTrie hasRole(String role, String... patterns) {
+    return rule(patterns, role.startsWith("ROLE_") ? role : "ROLE_" + role);
+  }
+
+  public RouteAuthorizationTrie authenticated(String... patterns) {
+    return rule(patterns, "IS_AUTHENTICATED_REMEMBERED");
+  }
+
+  /**
+   * 返回第一条匹配规则的权限，没有匹配时返回null.
+   */
+  public Collection<ConfigAttribute> match(String path) {
+    String[] segments = tokenize(path);
+    boolean trailingSlash = path.endsWith("/");
+    int best = match(root, segments, 0, trailingSlash, NONE);
+    return best == NONE ? null : attributes.get(best);
+  }
+
+  /**
+   * 返回第一条匹配规则的模式，用作指标的route标签，没有匹配时返回null.
+   */
+  public String route(String path) {
+    String[] segments = tokenize(path);
+    int best = match(root, segments, 0, path.endsWith("/"), NONE);
+    return best == NONE ? null : patterns.get(best);
+  }
+
+  /**
+   * pattern是否是一条permitAll规则，并且它覆盖的路径不会先匹配到更靠前的非permitAll规则.
+   * 跳过授权的快速通道(lind.fast-path)用它校验配置，避免绕过这里的规则.
+   */
+  public boolean isPermitAll(String pattern) {
+    int index = NONE;
+    for (Map.Entry<Integer, String> entry : patterns.entrySet()) {
+      if (entry.getValue().equals(pattern)) {
+        index = Math.min(index, entry.getKey());
+      }
+    }
+    if (index == NONE || !isPermitAll(attributes.get(index))) {
+      return false;
+    }
+    String[] segments = tokenize(pattern);
+    for (int earlier = 0; earlier < index; earlier++) {
+      if (!isPermitAll(attributes.get(earlier))
+          && overlaps(tokenize(patterns.get(earlier)), 0, segments, 0)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public Collection<ConfigAttribute> getAllConfigAttributes() {
+    Set<ConfigAttribute> all = new LinkedHashSet<>();
+    attributes.values().forEach(all::addAll);
+    return all;
+  }
+
+  private int match(Node node, String[] segments, int i, boolean trailingSlash, int best) {
+    if (node.minRule >= best) {
+      return best;
+    }
+    best = Math.min(best, node.anyDepth);
+    if (i == segments.length) {
+      return Math.min(best, trailingSlash ? node.terminalSlash : node.terminal);
+    }
+    Node literal = node.children.get(segments[i]);
+    if (literal != null) {
+      best = match(literal, segments, i + 1, trailingSlash, best);
+    }
+    if (node.wildcard != null) {
+      best = match(node.wildcard, segments, i + 1, trailingSlash, best);
+    }
+    return best;
+  }
+
+  private void insert(String pattern, int index) {
+    if (!pattern.startsWith("/")) {
+      throw new IllegalArgumentException("pattern must start with '/': " + pattern);
+    }
+    String[] segments = tokenize(pattern);
+    Node node = root;
+    node.minRule = Math.min(node.minRule, index);
+    for (int i = 0; i < segments.length; i++) {
+      String segment = segments[i];
+      if ("**".equals(segment)) {
+        if (i != segments.length - 1) {
+          throw new IllegalArgumentException("'**' is only supported at the end: " + pattern);
+        }
+        node.anyDepth = Math.min(node.anyDepth, index);
+        return;
+      }
+      if ("*".equals(segment)) {
+        if (node.wildcard == null) {
+          node.wildcard = new Node();
+        }
+        node = node.wildcard;
+      } else if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+        throw new IllegalArgumentException("unsupported segment '" + segment + "' in " + pattern);
+      } else {
+        node = node.children.computeIfAbsent(segment, key -> new Node());
+      }
+      node.minRule = Math.min(node.minRule, index);
+    }
+    // 与AntPathMatcher一致：/index不匹配/index/
+    if (pattern.endsWith("/")) {
+      node.terminalSlash = Math.min(node.terminalSlash, index);
+    } else {
+      node.terminal = Math.min(node.terminal, index);
+    }
+  }
+
+  private static boolean isPermitAll(Collection<ConfigAttribute> list) {
+    return list.size() == 1 && PERMIT_ALL.equals(list.iterator().next().getAttribute());
+  }
+
+  /**
+   * 两个模式是否可能匹配同一个路径，忽略末尾的/(偏保守).
+   */
+  private static boolean overlaps(String[] a, int i, String[] b, int j) {
+    if (i == a.length - 1 && "**".equals(a[i]) || j == b.length - 1 && "**".equals(b[j])) {
+      return true;
+    }
+    if (i == a.length || j == b.length) {
+      return i == a.length && j == b.length;
+    }
+    if ("*".equals(a[i]) || "*".equals(b[j]) || a[i].equals(b[j])) {
+      return overlaps(a, i + 1, b, j + 1);
+    }
+    return false;
+  }
+
+  /**
+   * 按/切分并忽略空段，与AntPathMatcher的tokenize一致.
+   */
+  private static String[] tokenize(String path) {
+    List<String> segments = new ArrayList<>();
+    int start = 0;
+    for (int i = 0; i <= path.length(); i++) {
+      if (i == path.length() || path.charAt(i) == '/') {
+        if (i > start) {
+          segments.add(path.substring(start, i));
+        }
+        start = i + 1;
+      }
+    }
+    return segments.toArray(new String[0]);
+  }
+
+  /**
+   * 各字段保存的是规则编号，NONE表示没有.
+   * minRule是子树中最小的规则编号，已经找到更靠前的规则时可以跳过整棵子树.
+   */
+  private static final class Node {
+    final Map<String, Node> children = new HashMap<>();
+    Node wildcard;
+    int terminal = NONE;
+    int terminalSlash = NONE;
+    int anyDepth = NONE;
+    int minRule = NONE;
+  }
+}
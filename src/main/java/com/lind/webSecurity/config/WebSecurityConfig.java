@@ -1,30 +1,48 @@
 package com.lind.webSecurity.config;
 
+import com.lind.webSecurity.session.CompactSecurityContextRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.access.vote.AuthenticatedVoter;
+import org.springframework.security.access.vote.RoleVoter;
 import org.springframework.security.authentication.ProviderManager;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 /**
  * @EnableWebMvcSecurity 注解开启Spring Security的功能.
- * 忽略/和/index页面的授权.
+ * 忽略/和/index页面的授权，路由规则编译成RouteAuthorizationTrie.
  * 指定表单登陆和登陆页面.
  * 指定自定义的成功handler处理方式.
- * @EnableGlobalMethodSecurity注解表示开启@PreAuthorize,@PostAuthorize, @Secured.
+ * 方法级别的授权(@PreAuthorize等)在MethodSecurityConfig中开启.
  * 授权执行顺序：filter->provider.retrieveUser->userDetialsService->provider.additionalAuthenticationChecks
+ * lind.token.enabled=true时为无状态模式，登录成功返回签名token，不再依赖HttpSession.
+ * lind.session.compact=true时登录状态保存在CompactSecurityContextRepository中.
+ * lind.fast-path.enabled=true(默认)时静态资源不经过过滤器链，公开页面走PublicRoutesSecurityConfig的精简链.
  */
 @Configuration
 @EnableWebSecurity
-@EnableGlobalMethodSecurity(prePostEnabled = true)
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   LindAuthenticationSuccessHandler lindAuthenticationSuccessHandler;
@@ -33,25 +51,106 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
   LindAuthenticationFailHandler lindAuthenticationFailHandler;
   @Autowired
   LindAuthenticationProvider lindAuthenticationProvider;
+  @Autowired
+  LindHashingExecutor lindHashingExecutor;
+  @Autowired
+  LindTokenService lindTokenService;
+  @Autowired
+  AuthMetrics authMetrics;
+  @Autowired(required = false)
+  CompactSecurityContextRepository compactSecurityContextRepository;
+
+  @Value("${lind.login.async:false}")
+  boolean asyncLogin;
+  @Value("${lind.login.async-timeout:10000}")
+  long asyncLoginTimeout;
+  @Value("${lind.login.retry-after-seconds:1}")
+  int retryAfterSeconds;
+  @Value("${lind.token.enabled:false}")
+  boolean tokenEnabled;
+  @Value("${lind.route-cache.size:0}")
+  long routeCacheSize;
+  @Value("${lind.fast-path.enabled:true}")
+  boolean fastPathEnabled;
+  @Value("${lind.fast-path.ignored:/css/**,/js/**,/images/**,/webjars/**,/favicon.ico}")
+  String[] fastPathIgnored;
+
+  /**
+   * 静态资源不需要认证、session和安全响应头，直接跳过整个过滤器链.
+   */
+  @Override
+  public void configure(WebSecurity web) {
+    if (fastPathEnabled && fastPathIgnored.length > 0) {
+      checkPermitAll(routeAuthorizationTrie(), "lind.fast-path.ignored", fastPathIgnored);
+      web.ignoring().antMatchers(fastPathIgnored);
+    }
+  }
 
   @Override
   protected void configure(HttpSecurity http) throws Exception {
+    // 按路由授权的规则在routeAuthorizationTrie()中编译，这里只用来创建FilterSecurityInterceptor
     http
         .authorizeRequests()
-        .antMatchers("/", "/index").permitAll()
-        .antMatchers("/admin/**").hasRole("ADMIN")//按路由授权
         .anyRequest().authenticated()
+        .withObjectPostProcessor(new ObjectPostProcessor<FilterSecurityInterceptor>() {
+          @Override
+          public <O extends FilterSecurityInterceptor> O postProcess(O interceptor) {
+            interceptor.setSecurityMetadataSource(
+                new CompiledRouteMetadataSource(routeAuthorizationTrie(), routeCacheSize));
+            interceptor.setAccessDecisionManager(
+                new AffirmativeBased(Arrays.asList(new RoleVoter(), new AuthenticatedVoter())));
+            return interceptor;
+          }
+        })
         .and()
         .formLogin()
         .loginPage("/login")
         .defaultSuccessUrl("/hello")//默认登录成功后跳转的页面
         .successHandler(lindAuthenticationSuccessHandler)
         .failureHandler(lindAuthenticationFailHandler)
-        .permitAll()
         .and()
-        .addFilterAt(lindAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class).authorizeRequests().and()
-        .logout()
-        .permitAll();
+        .addFilterAt(lindAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
+        .logout();
+
+    // 无状态模式：不创建session，用签名token认证
+    if (tokenEnabled) {
+      http
+          .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+          .and()
+          .addFilterBefore(new LindTokenAuthenticationFilter(lindTokenService),
+              UsernamePasswordAuthenticationFilter.class);
+    } else if (compactSecurityContextRepository != null) {
+      // lind.session.compact=true：SecurityContext保存在紧凑的本地会话仓库，不再放进HttpSession
+      http.securityContext().securityContextRepository(compactSecurityContextRepository);
+    }
+  }
+
+  /**
+   * 按路由授权，先添加的规则优先，与原来antMatchers的顺序相同.
+   * 登录和登出页面对应原来formLogin().permitAll()和logout().permitAll().
+   * FilterChainProfiler也用它把请求路径归到路由.
+   *
+   * @return
+   */
+  @Bean
+  RouteAuthorizationTrie routeAuthorizationTrie() {
+    return routeRules();
+  }
+
+  /**
+   * 路由授权规则的唯一定义，WebFlux版本(ReactiveSecurityConfig)也使用它.
+   *
+   * @return
+   */
+  public static RouteAuthorizationTrie routeRules() {
+    return new RouteAuthorizationTrie()
+        .permitAll("/login", "/logout")
+        .permitAll("/", "/index")
+        .permitAll("/css/**", "/js/**", "/images/**", "/webjars/**", "/favicon.ico")
+        .hasRole("ADMIN", "/admin/**")
+        // 监控端点包含登录失败统计、用户数量、bean和路由信息，只对管理员开放
+        .hasRole("ADMIN", "/actuator/**")
+        .authenticated("/**");
   }
 
   /**
@@ -59,6 +158,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
    * AuthenticationFilter默认是：UsernamePasswordAuthenticationFilter.https://github.com/spring-projects/spring-security/blob/ec970c9b8e7c2d669bc80b1bd21ad3ba91a20461/web/src/main/java/org/springframework/security/web/authentication/UsernamePasswordAuthenticationFilter.java
    * AuthenticationProvider默认是：DaoAuthenticationProvider.https://github.com/spring-projects/spring-security/blob/a3210c96d9f6fd64c285d71fd3175072b32c41bf/core/src/main/java/org/springframework/security/authentication/dao/DaoAuthenticationProvider.java
    * 授权方式get:/login?username=zzl&password=123456
+   * lind.login.async=true时密码校验在LindHashingExecutor中异步执行，不占用tomcat线程.
    *
    * @return
    */
@@ -70,16 +170,91 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     lindUserNameAuthenticationFilter.setAuthenticationManager(providerManager);
     lindUserNameAuthenticationFilter.setAuthenticationSuccessHandler(lindAuthenticationSuccessHandler);
     lindUserNameAuthenticationFilter.setAuthenticationFailureHandler(lindAuthenticationFailHandler);
+    lindUserNameAuthenticationFilter.setAuthMetrics(authMetrics);
+    if (asyncLogin) {
+      lindUserNameAuthenticationFilter.setHashingExecutor(lindHashingExecutor);
+      lindUserNameAuthenticationFilter.setAsyncTimeout(asyncLoginTimeout);
+      lindUserNameAuthenticationFilter.setRetryAfterSeconds(retryAfterSeconds);
+    }
     return lindUserNameAuthenticationFilter;
   }
 
+  /**
+   * lindAuthenticationFilter只在安全过滤器链中使用.
+   * 它是Filter类型的bean，Spring Boot默认还会把它注册成servlet过滤器，每个请求在链外多经过一次，这里取消注册.
+   *
+   * @return
+   */
+  @Bean
+  FilterRegistrationBean<LindUserNameAuthenticationFilter> lindAuthenticationFilterRegistration() {
+    FilterRegistrationBean<LindUserNameAuthenticationFilter> registration =
+        new FilterRegistrationBean<>(lindAuthenticationFilter());
+    registration.setEnabled(false);
+    return registration;
+  }
+
   /**
    * 密码生成策略.
+   * 默认在启动时按lind.bcrypt.latency-budget-ms校准BCrypt强度，关闭校准时使用lind.bcrypt.strength.
+   * 用户仓库在初始化时就需要它，所以声明为static，不依赖配置类实例.
    *
    * @return
    */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public static LindPasswordEncoder passwordEncoder(
+      @Value("${lind.bcrypt.calibrate:true}") boolean calibrate,
+      @Value("${lind.bcrypt.strength:10}") int strength,
+      @Value("${lind.bcrypt.latency-budget-ms:250}") long latencyBudget,
+      @Value("${lind.bcrypt.min-strength:10}") int minStrength,
+      @Value("${lind.bcrypt.max-strength:16}") int maxStrength) {
+    if (calibrate) {
+      return LindPasswordEncoder.calibrate(latencyBudget, minStrength, maxStrength);
+    }
+    return new LindPasswordEncoder(strength);
+  }
+
+  /**
+   * 快速通道跳过RouteAuthorizationTrie的授权判断，配置的模式必须是其中的permitAll规则，否则启动失败.
+   */
+  static void checkPermitAll(RouteAuthorizationTrie trie, String property, String[] patterns) {
+    for (String pattern : patterns) {
+      if (!trie.isPermitAll(pattern)) {
+        throw new IllegalStateException(property + ": " + pattern
+            + " is not a permitAll rule in routeAuthorizationTrie()");
+      }
+    }
+  }
+
+  /**
+   * 公开页面(lind.fast-path.public)的精简过滤器链，排在主链之前.
+   * 这些页面内容不随用户变化(见RenderedViewResolver)，只保留写安全响应头的HeaderWriterFilter，
+   * 不读写session、不做CSRF和授权判断.只匹配GET和HEAD，其它方法仍然走完整的链.
+   * 每个模式都必须是routeAuthorizationTrie()中的permitAll规则，见checkPermitAll.
+   */
+  @Configuration
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @ConditionalOnProperty(name = "lind.fast-path.enabled", havingValue = "true", matchIfMissing = true)
+  static class PublicRoutesSecurityConfig extends WebSecurityConfigurerAdapter {
+    @Value("${lind.fast-path.public:/,/index}")
+    String[] publicPatterns;
+    @Autowired
+    RouteAuthorizationTrie routeAuthorizationTrie;
+
+    PublicRoutesSecurityConfig() {
+      super(true);
+    }
+
+    @Override
+    protected void configure(HttpSecurity http) throws Exception {
+      checkPermitAll(routeAuthorizationTrie, "lind.fast-path.public", publicPatterns);
+      List<RequestMatcher> matchers = new ArrayList<>();
+      for (String pattern : publicPatterns) {
+        matchers.add(new AntPathRequestMatcher(pattern, "GET"));
+        matchers.add(new AntPathRequestMatcher(pattern, "HEAD"));
+      }
+      http
+          .requestMatcher(new OrRequestMatcher(matchers))
+          .headers();
+    }
   }
 }
@@ -1,5 +1,10 @@
 package com.lind.webSecurity.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.lind.webSecurity.config.LindPrincipalJsonCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -8,9 +13,21 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 public class UserController {
+  @Autowired
+  LindPrincipalJsonCache lindPrincipalJsonCache;
+
+  /**
+   * 前端每次加载页面都会调用，直接返回缓存的json字节，不再每次序列化.
+   */
   @GetMapping("/auth")
-  public Object getCurrentUser(@AuthenticationPrincipal UserDetails user) {
-    return user;
+  public ResponseEntity<byte[]> getCurrentUser(@AuthenticationPrincipal UserDetails user)
+      throws JsonProcessingException {
+    if (user == null) {
+      return ResponseEntity.ok().build();
+    }
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON_UTF8)
+        .body(lindPrincipalJsonCache.toJson(user));
   }
 
   @GetMapping("/write")
@@ -0,0 +1,177 @@
+package com.lind.webSecurity.session;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SaveContextOnUpdateOrErrorResponseWrapper;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * 用CompactSessionRepository代替HttpSession保存SecurityContext，会话id放在单独的cookie中.
+ * 加载时只取出字节，第一次调用getAuthentication时才解码.
+ * 和HttpSessionSecurityContextRepository一样包装response，在响应提交前保存，
+ * 因为登录成功的handler会直接写完响应.
+ * 匿名用户不创建会话；认证信息变化时删除旧会话并生成新的会话id，防止会话固定攻击.
+ * 本次请求是否有会话记在request属性中，containsContext不再查一次仓库.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lind.session", name = "compact", havingValue = "true")
+public class CompactSecurityContextRepository implements SecurityContextRepository {
+  static final String CONTAINS_CONTEXT_ATTRIBUTE =
+      CompactSecurityContextRepository.class.getName() + ".CONTAINS_CONTEXT";
+
+  private final CompactSessionRepository sessionRepository;
+  private final SecurityContextCodec codec;
+  private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+  @Value("${lind.session.cookie-name:LINDSESSION}")
+  String cookieName;
+
+  public CompactSecurityContextRepository(CompactSessionRepository sessionRepository,
+                                          SecurityContextCodec codec) {
+    this.sessionRepository = sessionRepository;
+    this.codec = codec;
+  }
+
+  @Override
+  public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+    HttpServletRequest request = requestResponseHolder.getRequest();
+    CompactSession session = findSession(request);
+    request.setAttribute(CONTAINS_CONTEXT_ATTRIBUTE, session != null);
+    SecurityContext context = session == null
+        ? SecurityContextHolder.createEmptyContext()
+        : new LazySecurityContext(session.getData());
+    requestResponseHolder.setResponse(
+        new SaveToRepositoryResponseWrapper(requestResponseHolder.getResponse(), request, session, context));
+    return context;
+  }
+
+  @Override
+  public void saveContext(SecurityContext context, HttpServletRequest request,
+                          HttpServletResponse response) {
+    SaveToRepositoryResponseWrapper wrapper =
+        WebUtils.getNativeResponse(response, SaveToRepositoryResponseWrapper.class);
+    if (wrapper == null) {
+      throw new IllegalStateException("Cannot invoke saveContext on response " + response
+          + ". You must use the HttpRequestResponseHolder.response after invoking loadContext");
+    }
+    if (!wrapper.isContextSaved()) {
+      wrapper.saveContext(context);
+    }
+  }
+
+  @Override
+  public boolean containsContext(HttpServletRequest request) {
+    Object contains = request.getAttribute(CONTAINS_CONTEXT_ATTRIBUTE);
+    return contains != null ? (Boolean) contains : findSession(request) != null;
+  }
+
+  private CompactSession findSession(HttpServletRequest request) {
+    Cookie cookie = WebUtils.getCookie(request, cookieName);
+    return cookie == null ? null : sessionRepository.findById(cookie.getValue());
+  }
+
+  private void writeCookie(HttpServletRequest request, HttpServletResponse response, String value) {
+    Cookie cookie = new Cookie(cookieName, value);
+    String contextPath = request.getContextPath();
+    cookie.setPath(contextPath.isEmpty() ? "/" : contextPath);
+    cookie.setHttpOnly(true);
+    cookie.setSecure(request.isSecure());
+    if (value == null) {
+      cookie.setMaxAge(0);
+    }
+    response.addCookie(cookie);
+  }
+
+  /**
+   * 延迟解码的SecurityContext，setAuthentication之后视为已修改.
+   */
+  private final class LazySecurityContext implements SecurityContext {
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] data;
+    private Authentication authentication;
+    private boolean decoded;
+    private boolean modified;
+
+    LazySecurityContext(byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+      if (!decoded) {
+        authentication = codec.decode(data);
+        decoded = true;
+      }
+      return authentication;
+    }
+
+    @Override
+    public void setAuthentication(Authentication authentication) {
+      this.authentication = authentication;
+      this.decoded = true;
+      this.modified = true;
+    }
+  }
+
+  private final class SaveToRepositoryResponseWrapper extends SaveContextOnUpdateOrErrorResponseWrapper {
+    private final HttpServletRequest request;
+    private final SecurityContext loadedContext;
+    private CompactSession session;
+
+    SaveToRepositoryResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+                                    CompactSession session, SecurityContext loadedContext) {
+      super(response, true);
+      this.request = request;
+      this.session = session;
+      this.loadedContext = loadedContext;
+    }
+
+    @Override
+    protected void saveContext(SecurityContext context) {
+      Authentication authentication = context.getAuthentication();
+      if (authentication == null || trustResolver.isAnonymous(authentication)) {
+        if (session != null) {
+          sessionRepository.deleteById(session.getId());
+          session = null;
+          request.setAttribute(CONTAINS_CONTEXT_ATTRIBUTE, false);
+          if (!isCommitted()) {
+            writeCookie(request, this, null);
+          }
+        }
+        return;
+      }
+      // 会话中的内容没有变化，findById已经刷新了访问时间
+      if (session != null && context == loadedContext && !((LazySecurityContext) context).modified) {
+        return;
+      }
+      // 认证信息变化(登录、切换用户)时废弃旧的会话id，与ChangeSessionIdAuthenticationStrategy相同，
+      // 否则攻击者预先植入的cookie在受害者登录后就代表受害者
+      if (session != null) {
+        sessionRepository.deleteById(session.getId());
+        session = null;
+        request.setAttribute(CONTAINS_CONTEXT_ATTRIBUTE, false);
+      }
+      // 响应已经提交时无法下发新cookie，不保存，相当于未登录
+      if (isCommitted()) {
+        return;
+      }
+      session = sessionRepository.createSession();
+      session.setData(codec.encode(authentication));
+      sessionRepository.save(session);
+      request.setAttribute(CONTAINS_CONTEXT_ATTRIBUTE, true);
+      writeCookie(request, this, session.getId());
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.lind.webSecurity.session;
+
+/**
+ * 仓库中的一个会话，只保存id、最后访问时间和编码后的内容.
+ */
+public final class CompactSession {
+  private final String id;
+  private final long lastAccessedTime;
+  private byte[] data;
+
+  public CompactSession(String id, long lastAccessedTime, byte[] data) {
+    this.id = id;
+    this.lastAccessedTime = lastAccessedTime;
+    this.data = data;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public long getLastAccessedTime() {
+    return lastAccessedTime;
+  }
+
+  public byte[] getData() {
+    return data;
+  }
+
+  public void setData(byte[] data) {
+    this.data = data;
+  }
+}
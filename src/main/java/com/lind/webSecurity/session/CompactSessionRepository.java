@@ -0,0 +1,21 @@
+package com.lind.webSecurity.session;
+
+/**
+ * 本地会话仓库，接口参照Spring Session的SessionRepository.
+ * 会话内容是编码后的字节，由调用方决定何时反序列化.
+ */
+public interface CompactSessionRepository {
+  CompactSession createSession();
+
+  /**
+   * 保存会话，空间不足时按最近最少访问淘汰其它会话.
+   */
+  void save(CompactSession session);
+
+  /**
+   * 查找并刷新最后访问时间，不存在或已经过期时返回null.
+   */
+  CompactSession findById(String id);
+
+  void deleteById(String id);
+}
@@ -0,0 +1,94 @@
+package com.lind.webSecurity.session;
+
+import com.lind.webSecurity.user.AuthorityRegistry;
+import com.lind.webSecurity.user.UserRecord;
+import com.lind.webSecurity.user.UserStore;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authentication的紧凑编码.
+ * 用户仓库里的用户只保存用户名和权限掩码(约十几个字节)，解码时如果仓库中的用户权限没有变化就直接复用同一个UserRecord实例；
+ * 密码hash和WebAuthenticationDetails只在登录时使用，不保存.
+ * 其它类型(例如测试里的User)退回到JDK序列化；解码的数据只来自服务端的会话仓库，
+ * 客户端只持有会话id，不会有外部输入进入ObjectInputStream.
+ * 掩码编号只在当前进程内有效，所以编码结果只能用于本地会话仓库.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lind.session", name = "compact", havingValue = "true")
+public class SecurityContextCodec {
+  private static final byte COMPACT = 1;
+  private static final byte SERIALIZED = 2;
+
+  private final AuthorityRegistry authorityRegistry;
+  private final UserStore userStore;
+
+  public SecurityContextCodec(AuthorityRegistry authorityRegistry, UserStore userStore) {
+    this.authorityRegistry = authorityRegistry;
+    this.userStore = userStore;
+  }
+
+  public byte[] encode(Authentication authentication) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      if (isCompact(authentication)) {
+        out.writeByte(COMPACT);
+        out.writeUTF(authentication.getName());
+        out.writeLong(((UserRecord) authentication.getPrincipal()).getAuthorityMask());
+      } else {
+        out.writeByte(SERIALIZED);
+        try (ObjectOutputStream object = new ObjectOutputStream(out)) {
+          object.writeObject(authentication);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public Authentication decode(byte[] data) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+      if (in.readByte() == COMPACT) {
+        String username = in.readUTF();
+        long mask = in.readLong();
+        UserRecord user = userStore.get(username);
+        if (user == null || user.getAuthorityMask() != mask) {
+          List<GrantedAuthority> authorities = authorityRegistry.authorities(mask);
+          user = new UserRecord(username, null, authorities, mask);
+        }
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+      }
+      try (ObjectInputStream object = new ObjectInputStream(in)) {
+        return (Authentication) object.readObject();
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      throw new IllegalStateException("cannot decode session", e);
+    }
+  }
+
+  /**
+   * 有未登记的权限，或者token的权限和principal不一致时，无法只用掩码还原.
+   */
+  private boolean isCompact(Authentication authentication) {
+    if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+        || !(authentication.getPrincipal() instanceof UserRecord)) {
+      return false;
+    }
+    long mask = authorityRegistry.mask(authentication.getAuthorities());
+    return Long.bitCount(mask) == authentication.getAuthorities().size()
+        && mask == ((UserRecord) authentication.getPrincipal()).getAuthorityMask();
+  }
+}
@@ -0,0 +1,322 @@
+package com.lind.webSecurity.session;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 把会话内容保存在固定大小槽位组成的ByteBuffer slab中.
+ * lind.session.off-heap=true时slab使用堆外内存，会话数量不再影响GC扫描的堆大小.
+ * 每个槽位：4字节下一个槽位编号(-1结束) + 2字节本槽位数据长度 + 数据，内容超过一个槽位时串成链.
+ * slab按需分配，总大小不超过lind.session.max-bytes，满了以后淘汰最近最少访问的会话；
+ * 空闲超过max-inactive-seconds的会话在访问或定时清理时删除.
+ * 会话按id的hash分到lind.session.shards个分片，每个分片有自己的slab、空闲槽位、访问顺序和锁，
+ * 查找会修改访问顺序，分片后并发请求不再争用同一把锁；淘汰只看本分片，是近似的LRU.
+ * 每个分片内的操作只是几次内存拷贝.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "lind.session", name = "compact", havingValue = "true")
+public class SlabSessionRepository implements CompactSessionRepository {
+  private static final int HEADER = 6;
+  private static final int END = -1;
+
+  private final SecureRandom random = new SecureRandom();
+  private final boolean offHeap;
+  private final int slotSize;
+  private final int slotsPerSlab;
+  private final long maxInactiveMillis;
+  private final Shard[] shards;
+
+  public SlabSessionRepository(
+      MeterRegistry meterRegistry,
+      @Value("${lind.session.off-heap:true}") boolean offHeap,
+      @Value("${lind.session.slot-size:128}") int slotSize,
+      @Value("${lind.session.slab-size:1048576}") int slabSize,
+      @Value("${lind.session.max-bytes:67108864}") long maxBytes,
+      @Value("${lind.session.max-inactive-seconds:1800}") long maxInactiveSeconds,
+      @Value("${lind.session.shards:16}") int shardCount) {
+    if (slotSize <= HEADER || slotSize > Short.MAX_VALUE || slabSize < slotSize) {
+      throw new IllegalArgumentException("bad slot-size/slab-size: " + slotSize + "/" + slabSize);
+    }
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("bad shards: " + shardCount);
+    }
+    this.offHeap = offHeap;
+    this.slotSize = slotSize;
+    this.slotsPerSlab = slabSize / slotSize;
+    this.maxInactiveMillis = TimeUnit.SECONDS.toMillis(maxInactiveSeconds);
+    // 每个分片至少一个slab，总大小按分片平分
+    long slabs = Math.max(1, maxBytes / ((long) slotsPerSlab * slotSize));
+    this.shards = new Shard[(int) Math.min(shardCount, slabs)];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard((int) (slabs / shards.length + (i < slabs % shards.length ? 1 : 0)));
+    }
+    Gauge.builder("lind.session.count", this, SlabSessionRepository::getSessionCount)
+        .register(meterRegistry);
+    Gauge.builder("lind.session.used", this, SlabSessionRepository::getUsedBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("lind.session.evictions", this, SlabSessionRepository::getEvictions)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public CompactSession createSession() {
+    byte[] id = new byte[16];
+    random.nextBytes(id);
+    return new CompactSession(Base64.getUrlEncoder().withoutPadding().encodeToString(id),
+        System.currentTimeMillis(), null);
+  }
+
+  @Override
+  public void save(CompactSession session) {
+    shard(session.getId()).save(session);
+  }
+
+  @Override
+  public CompactSession findById(String id) {
+    return shard(id).findById(id);
+  }
+
+  @Override
+  public void deleteById(String id) {
+    shard(id).deleteById(id);
+  }
+
+  /**
+   * 删除空闲超时的会话，每次只锁一个分片.
+   */
+  @Scheduled(fixedDelayString = "${lind.session.cleanup-interval:60000}")
+  public void purgeExpired() {
+    long deadline = System.currentTimeMillis() - maxInactiveMillis;
+    int removed = 0;
+    for (Shard shard : shards) {
+      removed += shard.purgeExpired(deadline);
+    }
+    if (removed > 0) {
+      log.debug("purged {} idle sessions", removed);
+    }
+  }
+
+  public int getSessionCount() {
+    int count = 0;
+    for (Shard shard : shards) {
+      count += shard.getSessionCount();
+    }
+    return count;
+  }
+
+  public long getUsedBytes() {
+    long used = 0;
+    for (Shard shard : shards) {
+      used += shard.getUsedSlots();
+    }
+    return used * slotSize;
+  }
+
+  public long getEvictions() {
+    long evictions = 0;
+    for (Shard shard : shards) {
+      evictions += shard.getEvictions();
+    }
+    return evictions;
+  }
+
+  private Shard shard(String id) {
+    int hash = id.hashCode();
+    return shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+  }
+
+  /**
+   * 一个分片：自己的slab和LRU，所有方法都在分片的锁内执行.
+   */
+  private final class Shard {
+    private final ByteBuffer[] slabs;
+
+    /**
+     * 按访问顺序排列，第一个是最久没有访问的会话.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int allocatedSlots;
+    private int usedSlots;
+    private long evictions;
+
+    private Shard(int slabCount) {
+      this.slabs = new ByteBuffer[slabCount];
+    }
+
+    synchronized void save(CompactSession session) {
+      byte[] data = session.getData();
+      int needed = Math.max(1, (data.length + slotSize - HEADER - 1) / (slotSize - HEADER));
+      if (needed > slabs.length * slotsPerSlab) {
+        throw new IllegalArgumentException("session data too large: " + data.length);
+      }
+      Entry old = entries.remove(session.getId());
+      if (old != null) {
+        release(old.firstSlot);
+      }
+      while (available() < needed && !entries.isEmpty()) {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        release(eldest.next().getValue().firstSlot);
+        eldest.remove();
+        evictions++;
+      }
+      entries.put(session.getId(), new Entry(write(data, needed), data.length, System.currentTimeMillis()));
+    }
+
+    synchronized CompactSession findById(String id) {
+      Entry entry = entries.get(id);
+      if (entry == null) {
+        return null;
+      }
+      long now = System.currentTimeMillis();
+      if (now - entry.lastAccessedTime > maxInactiveMillis) {
+        entries.remove(id);
+        release(entry.firstSlot);
+        return null;
+      }
+      entry.lastAccessedTime = now;
+      return new CompactSession(id, now, read(entry));
+    }
+
+    synchronized void deleteById(String id) {
+      Entry entry = entries.remove(id);
+      if (entry != null) {
+        release(entry.firstSlot);
+      }
+    }
+
+    /**
+     * 按访问顺序遍历，遇到第一个没有过期的就可以停止.
+     */
+    synchronized int purgeExpired(long deadline) {
+      int removed = 0;
+      Iterator<Entry> iterator = entries.values().iterator();
+      while (iterator.hasNext()) {
+        Entry entry = iterator.next();
+        if (entry.lastAccessedTime >= deadline) {
+          break;
+        }
+        release(entry.firstSlot);
+        iterator.remove();
+        removed++;
+      }
+      return removed;
+    }
+
+    synchronized int getSessionCount() {
+      return entries.size();
+    }
+
+    synchronized int getUsedSlots() {
+      return usedSlots;
+    }
+
+    synchronized long getEvictions() {
+      return evictions;
+    }
+
+    private int available() {
+      return freeCount + slabs.length * slotsPerSlab - allocatedSlots;
+    }
+
+    private int write(byte[] data, int slots) {
+      int first = END;
+      int previous = END;
+      int offset = 0;
+      for (int i = 0; i < slots; i++) {
+        int slot = allocate();
+        if (previous == END) {
+          first = slot;
+        } else {
+          position(previous).putInt(slot);
+        }
+        int length = Math.min(slotSize - HEADER, data.length - offset);
+        ByteBuffer buffer = position(slot);
+        buffer.putInt(END);
+        buffer.putShort((short) length);
+        buffer.put(data, offset, length);
+        offset += length;
+        previous = slot;
+      }
+      return first;
+    }
+
+    private byte[] read(Entry entry) {
+      byte[] data = new byte[entry.length];
+      int offset = 0;
+      for (int slot = entry.firstSlot; slot != END; ) {
+        ByteBuffer buffer = position(slot);
+        int next = buffer.getInt();
+        int length = buffer.getShort();
+        buffer.get(data, offset, length);
+        offset += length;
+        slot = next;
+      }
+      return data;
+    }
+
+    private int allocate() {
+      usedSlots++;
+      if (freeCount > 0) {
+        return freeSlots[--freeCount];
+      }
+      int slot = allocatedSlots++;
+      int slab = slot / slotsPerSlab;
+      if (slabs[slab] == null) {
+        int size = slotsPerSlab * slotSize;
+        slabs[slab] = offHeap ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+      }
+      return slot;
+    }
+
+    private void release(int firstSlot) {
+      for (int slot = firstSlot; slot != END; ) {
+        int next = position(slot).getInt();
+        if (freeCount == freeSlots.length) {
+          int[] grown = new int[freeCount * 2];
+          System.arraycopy(freeSlots, 0, grown, 0, freeCount);
+          freeSlots = grown;
+        }
+        freeSlots[freeCount++] = slot;
+        usedSlots--;
+        slot = next;
+      }
+    }
+
+    /**
+     * 定位到槽位开头；调用方都持有分片的锁，可以直接修改slab的position.
+     */
+    private ByteBuffer position(int slot) {
+      ByteBuffer slab = slabs[slot / slotsPerSlab];
+      slab.position((slot % slotsPerSlab) * slotSize);
+      return slab;
+    }
+  }
+
+  private static final class Entry {
+    final int firstSlot;
+    final int length;
+    long lastAccessedTime;
+
+    Entry(int firstSlot, int length, long lastAccessedTime) {
+      this.firstSlot = firstSlot;
+      this.length = length;
+      this.lastAccessedTime = lastAccessedTime;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.lind.webSecurity.startup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * lind.startup.lazy-init=true时把普通bean改为延迟初始化，第一次使用时才创建.
+ * 登录路径上的bean(lind.startup.eager-beans)和Spring的基础设施bean仍然在启动时创建；
+ * 安全过滤器链、thymeleaf、actuator端点等在第一个请求(通常是负载均衡的健康检查)到来时创建.
+ * Spring Boot 2.1还没有spring.main.lazy-initialization，所以在这里修改BeanDefinition.
+ */
+@Slf4j
+@Component
+public class LazyInitBeanFactoryPostProcessor
+    implements BeanFactoryPostProcessor, EnvironmentAware, Ordered {
+  static final String DEFAULT_EAGER_BEANS = "passwordEncoder,userStore,usernameBloomFilter,"
+      + "myUserDetailService,lindAuthenticationProvider,lindAuthenticationSuccessHandler,"
+      + "lindAuthenticationFailHandler,lindJsonResponseWriter,lindHashingExecutor,loginThrottle";
+
+  private Environment environment;
+
+  @Override
+  public void setEnvironment(Environment environment) {
+    this.environment = environment;
+  }
+
+  @Override
+  public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory)
+      throws BeansException {
+    if (!environment.getProperty("lind.startup.lazy-init", Boolean.class, false)) {
+      return;
+    }
+    Set<String> eagerBeans = new HashSet<>(Arrays.asList(
+        environment.getProperty("lind.startup.eager-beans", String[].class,
+            DEFAULT_EAGER_BEANS.split(","))));
+    int lazy = 0;
+    for (String name : beanFactory.getBeanDefinitionNames()) {
+      BeanDefinition definition = beanFactory.getBeanDefinition(name);
+      if (eagerBeans.contains(name)
+          || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE
+          || definition.isLazyInit()
+          || !definition.isSingleton()) {
+        continue;
+      }
+      definition.setLazyInit(true);
+      lazy++;
+    }
+    log.info("lazy-init enabled,lazyBeans={},eagerBeans={}", lazy, eagerBeans);
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.LOWEST_PRECEDENCE;
+  }
+}
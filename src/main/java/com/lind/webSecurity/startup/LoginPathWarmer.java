@@ -0,0 +1,46 @@
+package com.lind.webSecurity.startup;
+
+import com.lind.webSecurity.config.LindJsonResponseWriter;
+import com.lind.webSecurity.user.UserStore;
+import com.lind.webSecurity.user.UsernameBloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动后预热登录路径，让第一次登录不承担类加载和JIT的开销.
+ * 只触碰登录用到的组件：BCrypt计算一次hash，走一遍用户查找，序列化常见的失败消息；
+ * 不经过认证流程，不产生审计记录、限流计数和登录指标.
+ * lind.startup.warm-login=true时启用(fast profile).
+ */
+@Slf4j
+@Component
+public class LoginPathWarmer {
+  @Autowired
+  PasswordEncoder passwordEncoder;
+
+  @Autowired
+  UserStore userStore;
+
+  @Autowired
+  UsernameBloomFilter usernameBloomFilter;
+
+  @Autowired
+  LindJsonResponseWriter lindJsonResponseWriter;
+
+  @EventListener(value = ApplicationReadyEvent.class,
+      condition = "@environment.getProperty('lind.startup.warm-login', 'false') == 'true'")
+  public void warmUp() {
+    long start = System.nanoTime();
+    passwordEncoder.encode("warm-up");
+    userStore.usernames().stream().findFirst()
+        .filter(usernameBloomFilter::mightContain)
+        .ifPresent(userStore::get);
+    lindJsonResponseWriter.failureBody(new BadCredentialsException("Bad credentials"));
+    log.info("login path warmed up,millis={}", (System.nanoTime() - start) / 1000000);
+  }
+}
@@ -0,0 +1,107 @@
+package com.lind.webSecurity.startup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+
+/**
+ * 启动耗时报告：各启动阶段的耗时，以及每个bean从实例化到初始化完成的耗时.
+ * bean耗时不包含创建它依赖的其它bean的时间(按线程维护创建栈，子bean耗时从父bean中扣除)，
+ * 所以各bean耗时之和约等于refresh中花在创建bean上的时间.
+ * 由StartupReportListener在启动时注册，注册为名为startupReport的单例，/actuator/startupreport读取.
+ */
+public class StartupReport extends InstantiationAwareBeanPostProcessorAdapter {
+  private final Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+
+  private final Map<String, Long> beans = new ConcurrentHashMap<>();
+
+  private final ThreadLocal<Deque<Creation>> creating = ThreadLocal.withInitial(ArrayDeque::new);
+
+  /**
+   * 记录阶段耗时.
+   */
+  void phase(String name, long nanos) {
+    phases.put(name, TimeUnit.NANOSECONDS.toMillis(nanos));
+  }
+
+  /**
+   * 各阶段耗时，单位毫秒，按发生顺序.
+   */
+  public Map<String, Long> getPhases() {
+    synchronized (phases) {
+      return new LinkedHashMap<>(phases);
+    }
+  }
+
+  /**
+   * 耗时最多的bean，单位毫秒.
+   */
+  public Map<String, Long> getSlowestBeans(int limit) {
+    List<Map.Entry<String, Long>> entries = new ArrayList<>(beans.entrySet());
+    entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+    Map<String, Long> slowest = new LinkedHashMap<>();
+    for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+      slowest.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+    }
+    return slowest;
+  }
+
+  public int getBeanCount() {
+    return beans.size();
+  }
+
+  /**
+   * 所有bean耗时之和，单位毫秒.
+   */
+  public long getBeanMillis() {
+    long total = 0;
+    for (long nanos : beans.values()) {
+      total += nanos;
+    }
+    return TimeUnit.NANOSECONDS.toMillis(total);
+  }
+
+  @Override
+  public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+    creating.get().push(new Creation(beanName, System.nanoTime()));
+    return null;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    Deque<Creation> stack = creating.get();
+    // FactoryBean产生的对象也会回调这里，但没有对应的postProcessBeforeInstantiation
+    if (stack.stream().noneMatch(c -> c.beanName.equals(beanName))) {
+      return bean;
+    }
+    // 创建失败的bean不会回调，它们的记录在这里丢弃
+    Creation creation = stack.pop();
+    while (!creation.beanName.equals(beanName)) {
+      creation = stack.pop();
+    }
+    long elapsed = System.nanoTime() - creation.start;
+    beans.merge(beanName, elapsed - creation.children, Long::sum);
+    if (!stack.isEmpty()) {
+      stack.peek().children += elapsed;
+    }
+    return bean;
+  }
+
+  private static final class Creation {
+    private final String beanName;
+    private final long start;
+    private long children;
+
+    private Creation(String beanName, long start) {
+      this.beanName = beanName;
+      this.start = start;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.lind.webSecurity.startup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/startupreport：启动各阶段和最慢的bean的耗时，单位毫秒.
+ * bean耗时只在lind.startup.report=true时记录.
+ */
+@Component
+@Endpoint(id = "startupreport")
+public class StartupReportEndpoint {
+  @Autowired
+  StartupReport startupReport;
+
+  @Value("${lind.startup.report-top:20}")
+  int top;
+
+  @ReadOperation
+  public Map<String, Object> report() {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("phases", startupReport.getPhases());
+    report.put("beanCount", startupReport.getBeanCount());
+    report.put("beanMillis", startupReport.getBeanMillis());
+    report.put("slowestBeans", startupReport.getSlowestBeans(top));
+    return report;
+  }
+}
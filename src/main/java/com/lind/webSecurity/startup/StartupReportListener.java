@@ -0,0 +1,103 @@
+package com.lind.webSecurity.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringApplicationRunListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * 记录启动各阶段的耗时，在META-INF/spring.factories中注册.
+ * jvm：JVM启动到SpringApplication.run；environment：加载配置；context-create：banner和创建上下文；
+ * context-load：注册启动类；refresh：创建bean、启动tomcat；
+ * ready：ApplicationRunner和ApplicationReadyEvent(包括登录路径预热).
+ * lind.startup.report=true时同时记录每个bean的耗时，并在启动完成后输出到日志.
+ */
+@Slf4j
+public class StartupReportListener implements SpringApplicationRunListener, Ordered {
+  private final StartupReport report = new StartupReport();
+
+  private boolean enabled;
+
+  private int top;
+
+  private long last;
+
+  public StartupReportListener(SpringApplication application, String[] args) {
+  }
+
+  @Override
+  public void starting() {
+    last = System.nanoTime();
+    long jvmMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    report.phase("jvm", TimeUnit.MILLISECONDS.toNanos(jvmMillis));
+  }
+
+  @Override
+  public void environmentPrepared(ConfigurableEnvironment environment) {
+    enabled = environment.getProperty("lind.startup.report", Boolean.class, false);
+    top = environment.getProperty("lind.startup.report-top", Integer.class, 20);
+    mark("environment");
+  }
+
+  @Override
+  public void contextPrepared(ConfigurableApplicationContext context) {
+    mark("context-create");
+    if (enabled) {
+      context.getBeanFactory().addBeanPostProcessor(report);
+    }
+    context.getBeanFactory().registerSingleton("startupReport", report);
+  }
+
+  @Override
+  public void contextLoaded(ConfigurableApplicationContext context) {
+    mark("context-load");
+  }
+
+  @Override
+  public void started(ConfigurableApplicationContext context) {
+    mark("refresh");
+  }
+
+  @Override
+  public void running(ConfigurableApplicationContext context) {
+    mark("ready");
+    if (!enabled) {
+      return;
+    }
+    StringBuilder message = new StringBuilder("startup report");
+    for (Map.Entry<String, Long> phase : report.getPhases().entrySet()) {
+      message.append("\n  phase ").append(phase.getKey()).append(": ")
+          .append(phase.getValue()).append("ms");
+    }
+    message.append("\n  beans: ").append(report.getBeanCount()).append(" created in ")
+        .append(report.getBeanMillis()).append("ms, slowest:");
+    for (Map.Entry<String, Long> bean : report.getSlowestBeans(top).entrySet()) {
+      message.append("\n    ").append(bean.getKey()).append(": ")
+          .append(bean.getValue()).append("ms");
+    }
+    log.info(message.toString());
+  }
+
+  @Override
+  public void failed(ConfigurableApplicationContext context, Throwable exception) {
+  }
+
+  /**
+   * 在EventPublishingRunListener之后执行，ready阶段包含ApplicationReadyEvent的监听器.
+   */
+  @Override
+  public int getOrder() {
+    return 1;
+  }
+
+  private void mark(String phase) {
+    long now = System.nanoTime();
+    report.phase(phase, now - last);
+    last = now;
+  }
+}
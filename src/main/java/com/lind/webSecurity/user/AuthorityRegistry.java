@@ -0,0 +1,90 @@
+package com.lind.webSecurity.user;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * 权限名称到整数编号的映射，最多64个，编号对应long掩码中的一位.
+ * 加载用户和编译@PreAuthorize规则时登记名称，之后权限判断只需要做一次掩码运算.
+ */
+@Component
+public class AuthorityRegistry {
+  public static final int CAPACITY = Long.SIZE;
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  private final GrantedAuthority[] authorities = new GrantedAuthority[CAPACITY];
+
+  /**
+   * 登记权限名称.
+   *
+   * @return 编号，超出容量时返回-1.
+   */
+  public int intern(String authority) {
+    Integer id = ids.get(authority);
+    if (id != null) {
+      return id;
+    }
+    synchronized (ids) {
+      id = ids.get(authority);
+      if (id == null) {
+        if (next.get() >= CAPACITY) {
+          return -1;
+        }
+        id = next.get();
+        authorities[id] = new SimpleGrantedAuthority(authority);
+        next.incrementAndGet();
+        ids.put(authority, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * 登记并计算掩码，用于加载用户.
+   */
+  public long internMask(Collection<? extends GrantedAuthority> authorities) {
+    long mask = 0L;
+    for (GrantedAuthority authority : authorities) {
+      int id = intern(authority.getAuthority());
+      if (id >= 0) {
+        mask |= 1L << id;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * 掩码还原为权限列表，按编号排序；用于紧凑存储的会话.
+   */
+  public List<GrantedAuthority> authorities(long mask) {
+    List<GrantedAuthority> list = new ArrayList<>(Long.bitCount(mask));
+    for (long bits = mask; bits != 0; bits &= bits - 1) {
+      list.add(authorities[Long.numberOfTrailingZeros(bits)]);
+    }
+    return list;
+  }
+
+  /**
+   * 只查询不登记，用于不是UserRecord的principal；未登记的名称不会出现在任何编译后的规则中.
+   */
+  public long mask(Collection<? extends GrantedAuthority> authorities) {
+    long mask = 0L;
+    for (GrantedAuthority authority : authorities) {
+      Integer id = ids.get(authority.getAuthority());
+      if (id != null) {
+        mask |= 1L << id;
+      }
+    }
+    return mask;
+  }
+}
@@ -0,0 +1,93 @@
+package com.lind.webSecurity.user;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * 用户仓库中的不可变用户记录.
+ * 密码在加载时已经完成hash，查找时直接返回同一个实例，所以它没有实现CredentialsContainer，
+ * ProviderManager擦除凭证时不会修改共享的记录.
+ */
+public final class UserRecord implements UserDetails {
+  private static final long serialVersionUID = 1L;
+
+  private final String username;
+  private final String password;
+  private final List<GrantedAuthority> authorities;
+
+  private final long authorityMask;
+
+  public UserRecord(String username, String password, List<GrantedAuthority> authorities,
+                    long authorityMask) {
+    this.username = username;
+    this.password = password;
+    this.authorities = Collections.unmodifiableList(authorities);
+    this.authorityMask = authorityMask;
+  }
+
+  @Override
+  public String getUsername() {
+    return username;
+  }
+
+  /**
+   * 密码hash不参与序列化，避免从/auth等接口泄露.
+   */
+  @JsonIgnore
+  @Override
+  public String getPassword() {
+    return password;
+  }
+
+  @Override
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return authorities;
+  }
+
+  /**
+   * 由AuthorityRegistry计算的权限掩码.
+   */
+  @JsonIgnore
+  public long getAuthorityMask() {
+    return authorityMask;
+  }
+
+  @Override
+  public boolean isAccountNonExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean isAccountNonLocked() {
+    return true;
+  }
+
+  @Override
+  public boolean isCredentialsNonExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof UserRecord && username.equals(((UserRecord) o).username);
+  }
+
+  @Override
+  public int hashCode() {
+    return username.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "UserRecord{username=" + username + ", authorities=" + authorities + "}";
+  }
+}
@@ -0,0 +1,190 @@
+package com.lind.webSecurity.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 内存用户仓库.
+ * 启动时从本地文件(csv或json)加载用户，密码只hash一次，结果放到不可变的ImmutableMap索引里.
+ * 重新加载时先构建新索引再整体替换(copy-on-write)，查找过程无锁、不分配对象.
+ * 替换完成后发布UserStoreReloadedEvent，通知各类缓存失效.
+ * <p>
+ * csv格式：username,password,authority1,authority2...，#开头为注释.
+ * json格式：[{"username":"admin","password":"123","authorities":["read","ROLE_ADMIN"]}].
+ * 密码可以是明文(加载时hash)或者已经是bcrypt的hash，生产环境建议直接存hash.
+ * updatePassword(登录后的密码hash升级)只修改内存索引，不写回文件：重新加载或重启后恢复文件中的hash，
+ * 用户下次登录时会再升级一次.需要保留升级结果时把新hash写进用户文件.
+ */
+@Slf4j
+@Component
+public class UserStore {
+  private static final Pattern BCRYPT_PATTERN =
+      Pattern.compile("\\A\\$2(a|y|b)?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+  @Autowired
+  ResourceLoader resourceLoader;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Autowired
+  ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  AuthorityRegistry authorityRegistry;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @Value("${lind.user-store.location:classpath:users.csv}")
+  String location;
+
+  private volatile Map<String, UserRecord> index = ImmutableMap.of();
+
+  private volatile long lastModified;
+
+  @PostConstruct
+  public void init() throws IOException {
+    reload();
+  }
+
+  /**
+   * 按用户名查找，不存在返回null.
+   */
+  public UserRecord get(String username) {
+    return index.get(username);
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * 当前所有用户名，索引替换后返回的集合不会再变化.
+   */
+  public Set<String> usernames() {
+    return index.keySet();
+  }
+
+  /**
+   * 重新加载用户文件，构建完成后一次性替换索引.
+   */
+  public synchronized void reload() throws IOException {
+    Resource resource = resourceLoader.getResource(location);
+    long modified = resource.isFile() ? resource.lastModified() : 0L;
+    List<UserRecord> records;
+    try (InputStream in = resource.getInputStream()) {
+      records = location.endsWith(".json") ? readJson(in) : readCsv(in);
+    }
+    Map<String, UserRecord> loaded = new LinkedHashMap<>();
+    for (UserRecord record : records) {
+      loaded.put(record.getUsername(), record);
+    }
+    index = ImmutableMap.copyOf(loaded);
+    lastModified = modified;
+    eventPublisher.publishEvent(new UserStoreReloadedEvent(this));
+    log.info("user store loaded,location={},users={}", location, loaded.size());
+  }
+
+  /**
+   * 替换单个用户的密码hash，当前hash与expectedHash一致时才替换.
+   * 同样是构建新索引后整体替换，适合密码升级这类低频操作；只修改内存，重新加载后丢失.
+   *
+   * @return 是否替换成功.
+   */
+  public synchronized boolean updatePassword(String username, String expectedHash,
+                                             String newHash) {
+    UserRecord current = index.get(username);
+    if (current == null || !current.getPassword().equals(expectedHash)) {
+      return false;
+    }
+    Map<String, UserRecord> updated = new LinkedHashMap<>(index);
+    updated.put(username, new UserRecord(username, newHash,
+        new ArrayList<>(current.getAuthorities()), current.getAuthorityMask()));
+    index = ImmutableMap.copyOf(updated);
+    return true;
+  }
+
+  /**
+   * 文件有变化时重新加载，加载失败保留原来的索引.
+   */
+  @Scheduled(fixedDelayString = "${lind.user-store.reload-interval:30000}")
+  public void reloadIfModified() {
+    try {
+      Resource resource = resourceLoader.getResource(location);
+      if (resource.isFile() && resource.lastModified() != lastModified) {
+        reload();
+      }
+    } catch (IOException | RuntimeException ex) {
+      log.warn("user store reload failed,location={}", location, ex);
+    }
+  }
+
+  private List<UserRecord> readCsv(InputStream in) throws IOException {
+    List<UserRecord> records = new ArrayList<>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] columns = line.split(",", 3);
+      if (columns.length < 2) {
+        throw new IOException("Invalid user line: " + line);
+      }
+      List<GrantedAuthority> authorities = columns.length > 2
+          ? AuthorityUtils.commaSeparatedStringToAuthorityList(columns[2])
+          : AuthorityUtils.NO_AUTHORITIES;
+      records.add(toRecord(columns[0].trim(), columns[1].trim(), authorities));
+    }
+    return records;
+  }
+
+  private List<UserRecord> readJson(InputStream in) throws IOException {
+    List<UserRecord> records = new ArrayList<>();
+    for (JsonNode node : objectMapper.readTree(in)) {
+      List<GrantedAuthority> authorities = new ArrayList<>();
+      for (JsonNode authority : node.path("authorities")) {
+        authorities.add(new SimpleGrantedAuthority(authority.asText()));
+      }
+      records.add(toRecord(node.path("username").asText(), node.path("password").asText(),
+          authorities));
+    }
+    return records;
+  }
+
+  private UserRecord toRecord(String username, String password,
+                              List<GrantedAuthority> authorities) {
+    String hash = BCRYPT_PATTERN.matcher(password).matches()
+        ? password
+        : passwordEncoder.encode(password);
+    return new UserRecord(username, hash, new ArrayList<>(authorities),
+        authorityRegistry.internMask(authorities));
+  }
+}
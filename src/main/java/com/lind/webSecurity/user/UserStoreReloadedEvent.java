@@ -0,0 +1,14 @@
+package com.lind.webSecurity.user;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 用户仓库重新加载完成后发布，缓存了用户信息的组件据此失效.
+ */
+public class UserStoreReloadedEvent extends ApplicationEvent {
+  private static final long serialVersionUID = 1L;
+
+  public UserStoreReloadedEvent(UserStore source) {
+    super(source);
+  }
+}
@@ -0,0 +1,119 @@
+package com.lind.webSecurity.user;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 已知用户名的布隆过滤器，在查询用户源之前排除一定不存在的用户名.
+ * 撞库和枚举用户名的请求大多是不存在的用户，这部分请求不再访问用户源.
+ * 用户仓库重新加载时新增的用户直接put(Guava 23的BloomFilter可以并发读写)；
+ * 过滤器不支持删除，用户减少或者数量超过预期容量时整体重建.
+ * 误判率由lind.user-bloom.fpp控制，误判只会让请求走一次正常查找，不影响正确性.
+ */
+@Slf4j
+@Component
+public class UsernameBloomFilter {
+  @Autowired
+  UserStore userStore;
+
+  private final boolean enabled;
+  private final double fpp;
+  private final long minCapacity;
+  private final Counter rejected;
+
+  private volatile BloomFilter<String> filter;
+  private volatile long capacity;
+  private int lastSize;
+
+  public UsernameBloomFilter(
+      MeterRegistry meterRegistry,
+      @Value("${lind.user-bloom.enabled:true}") boolean enabled,
+      @Value("${lind.user-bloom.fpp:0.01}") double fpp,
+      @Value("${lind.user-bloom.expected-insertions:10000}") long minCapacity) {
+    this.enabled = enabled;
+    this.fpp = fpp;
+    this.minCapacity = minCapacity;
+    this.rejected = meterRegistry.counter("lind.user-bloom.rejected");
+    Gauge.builder("lind.user-bloom.elements", this, UsernameBloomFilter::getApproximateElementCount)
+        .register(meterRegistry);
+    Gauge.builder("lind.user-bloom.fill", this, UsernameBloomFilter::getFillRatio)
+        .register(meterRegistry);
+    Gauge.builder("lind.user-bloom.expected-fpp", this, UsernameBloomFilter::getExpectedFpp)
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  public void init() {
+    rebuild();
+  }
+
+  /**
+   * 返回false表示用户名一定不存在.
+   */
+  public boolean mightContain(String username) {
+    BloomFilter<String> current = filter;
+    if (current == null || current.mightContain(username)) {
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  @EventListener
+  public synchronized void onUserStoreReloaded(UserStoreReloadedEvent event) {
+    if (filter == null || userStore.size() < lastSize || userStore.size() > capacity) {
+      rebuild();
+      return;
+    }
+    // 只增不减时原地put，已经存在的用户名put不会改变过滤器
+    for (String username : userStore.usernames()) {
+      filter.put(username);
+    }
+    lastSize = userStore.size();
+  }
+
+  public long getApproximateElementCount() {
+    BloomFilter<String> current = filter;
+    return current == null ? 0 : current.approximateElementCount();
+  }
+
+  /**
+   * 已用元素数占预期容量的比例，接近1时误判率开始超过fpp.
+   */
+  public double getFillRatio() {
+    return capacity == 0 ? 0 : (double) getApproximateElementCount() / capacity;
+  }
+
+  public double getExpectedFpp() {
+    BloomFilter<String> current = filter;
+    return current == null ? 0 : current.expectedFpp();
+  }
+
+  private synchronized void rebuild() {
+    if (!enabled) {
+      return;
+    }
+    int size = userStore.size();
+    // 预留一倍空间给后续增加的用户
+    long expected = Math.max(minCapacity, size * 2L);
+    BloomFilter<String> rebuilt =
+        BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expected, fpp);
+    for (String username : userStore.usernames()) {
+      rebuilt.put(username);
+    }
+    capacity = expected;
+    lastSize = size;
+    filter = rebuilt;
+    log.debug("username bloom filter rebuilt,users={},capacity={}", size, expected);
+  }
+}
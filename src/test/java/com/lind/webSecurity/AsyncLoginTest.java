@@ -0,0 +1,168 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.lind.webSecurity.config.AuthMetrics;
+import com.lind.webSecurity.config.LindHashingExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * lind.login.async=true：校验在LindHashingExecutor中执行，完成后ASYNC dispatch重新经过安全过滤器链.
+ * 线程池只有一个线程和一个队列位置，便于构造排队、队列已满的场景.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "lind.login.async=true",
+    "lind.login.hashing-threads=1",
+    "lind.login.queue-capacity=1",
+    "lind.throttle.enabled=false"})
+public class AsyncLoginTest {
+  protected MockMvc mockMvc;
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+  @Autowired
+  private LindHashingExecutor lindHashingExecutor;
+  @Autowired
+  private AuthMetrics authMetrics;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Before
+  public void init() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  @After
+  public void drain() throws Exception {
+    release.countDown();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while ((lindHashingExecutor.getActiveCount() > 0 || lindHashingExecutor.getQueueDepth() > 0)
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void loginSuccessAfterAsyncDispatch() throws Exception {
+    MvcResult result = mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "123"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message").value("success"));
+  }
+
+  @Test
+  public void loginFailureAfterAsyncDispatch() throws Exception {
+    MvcResult result = mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "456"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void queueFullRejectedWith429() throws Exception {
+    block();
+    // 占满唯一的队列位置
+    lindHashingExecutor.execute(() -> {
+    });
+    Counter rejected = meterRegistry.counter("lind.auth.result",
+        "result", "failure", "exception", "LoginThrottledException");
+    double before = rejected.count();
+    mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "123"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "1"))
+        .andExpect(jsonPath("$.message").value("Too many login requests"));
+    // 经过失败handler，计入失败指标
+    assertEquals(before + 1, rejected.count(), 0);
+  }
+
+  @Test
+  public void timeoutSkipsQueuedCheck() throws Exception {
+    block();
+    long checks = authMetrics.timer(AuthMetrics.Stage.FILTER).count();
+    MvcResult result = mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "123"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onTimeout(new AsyncEvent(asyncContext));
+    }
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isUnauthorized())
+        .andExpect(jsonPath("$.message").value("Authentication timed out"));
+
+    // 超时后排队的校验被跳过
+    drain();
+    assertEquals(checks, authMetrics.timer(AuthMetrics.Stage.FILTER).count());
+  }
+
+  /**
+   * 占住唯一的校验线程，直到测试结束.
+   */
+  private void block() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    lindHashingExecutor.execute(() -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+  }
+
+  /**
+   * 等待AsyncContext.dispatch()后以ASYNC类型重新发送同一个请求.
+   * MockMvcRequestBuilders.asyncDispatch只适用于controller返回的异步结果，这里是过滤器直接使用的Servlet异步.
+   */
+  private static RequestBuilder asyncDispatch(MvcResult result) throws InterruptedException {
+    MockHttpServletRequest request = result.getRequest();
+    MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+    CountDownLatch dispatched = new CountDownLatch(1);
+    asyncContext.addDispatchHandler(dispatched::countDown);
+    assertTrue(dispatched.await(10, TimeUnit.SECONDS));
+    return servletContext -> {
+      request.setDispatcherType(DispatcherType.ASYNC);
+      request.setAsyncStarted(false);
+      return request;
+    };
+  }
+}
@@ -0,0 +1,125 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lind.webSecurity.audit.AuditEvent;
+import com.lind.webSecurity.audit.AuditLog;
+import com.lind.webSecurity.audit.AuditLogReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AuditLogTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void writeAndReadRecent() throws Exception {
+    Path directory = folder.getRoot().toPath();
+    // 分段很小，保证会发生切换
+    AuditLog auditLog = new AuditLog(new ObjectMapper(), directory.toString(), 1024,
+        AuditLog.FullPolicy.BLOCK, 16, 4096, 100);
+    auditLog.start();
+    for (int i = 0; i < 200; i++) {
+      auditLog.record(new AuditEvent(AuditEvent.LOGIN_FAILURE, i % 2 == 0 ? "admin" : "user",
+          "127.0.0.1", "Bad credentials " + i));
+    }
+    auditLog.close();
+    assertEquals(200, auditLog.getWrittenCount());
+
+    List<String> recent = AuditLogReader.recent(directory, 10, "admin");
+    assertEquals(10, recent.size());
+    assertTrue(recent.get(9).contains("Bad credentials 198"));
+    assertTrue(recent.get(0).contains("Bad credentials 180"));
+  }
+
+  @Test
+  public void restartContinuesSegmentSequence() throws Exception {
+    Path directory = folder.getRoot().toPath();
+    Path writer = Files.createDirectories(directory.resolve("writer-0"));
+    Files.createFile(writer.resolve(String.format("audit-%019d.jsonl", 41)));
+    writeEvents(directory, "first");
+    writeEvents(directory, "second");
+    List<String> names = segmentNames(writer);
+
+    // 序号从已有的最大序号连续递增，补零后文件名顺序就是写入顺序
+    assertTrue(names.size() > 2);
+    for (int i = 0; i < names.size(); i++) {
+      assertEquals(String.format("audit-%019d.jsonl", 41 + i), names.get(i));
+    }
+
+    // 没有写入的重启接着用最新的分段，不会新建分段
+    new AuditLog(new ObjectMapper(), directory.toString(), 1024,
+        AuditLog.FullPolicy.BLOCK, 16, 4096, 100).close();
+    assertEquals(names, segmentNames(writer));
+
+    // 第二次启动的分段排在第一次之后，最新的记录来自第二次
+    List<String> recent = AuditLogReader.recent(directory, 10, "admin");
+    assertEquals(10, recent.size());
+    assertTrue(recent.get(9).contains("second 198"));
+    assertTrue(recent.get(0).contains("second 180"));
+  }
+
+  @Test
+  public void writersSharingDirectoryKeepTheirSegments() throws Exception {
+    Path directory = folder.getRoot().toPath();
+    AuditLog first = new AuditLog(new ObjectMapper(), directory.toString(), 1024,
+        AuditLog.FullPolicy.BLOCK, 16, 4096, 2);
+    first.start();
+    first.record(new AuditEvent(AuditEvent.LOGIN_SUCCESS, "alice", "127.0.0.1", "first"));
+    // 第二个写入者切换很多次分段并删除旧分段，不能删除第一个写入者正在写的分段
+    AuditLog second = new AuditLog(new ObjectMapper(), directory.toString(), 1024,
+        AuditLog.FullPolicy.BLOCK, 16, 4096, 2);
+    second.start();
+    for (int i = 0; i < 200; i++) {
+      second.record(new AuditEvent(AuditEvent.LOGIN_FAILURE, "bob", "127.0.0.1", "second " + i));
+    }
+    second.close();
+    first.record(new AuditEvent(AuditEvent.LOGIN_SUCCESS, "alice", "127.0.0.1", "last"));
+    first.close();
+
+    List<String> recent = AuditLogReader.recent(directory, 10, "alice");
+    assertEquals(2, recent.size());
+    assertTrue(recent.get(1).contains("last"));
+    assertTrue(Files.isDirectory(directory.resolve("writer-1")));
+  }
+
+  @Test
+  public void eventsAfterCloseAreCountedAsDropped() throws Exception {
+    AuditLog auditLog = new AuditLog(new ObjectMapper(), folder.getRoot().getPath(), 1024,
+        AuditLog.FullPolicy.BLOCK, 16, 4096, 100);
+    auditLog.start();
+    auditLog.close();
+    auditLog.record(new AuditEvent(AuditEvent.LOGIN_FAILURE, "admin", "127.0.0.1", "late"));
+    assertEquals(1, auditLog.getDroppedCount());
+  }
+
+  private static List<String> segmentNames(Path writer) throws Exception {
+    List<String> names = new ArrayList<>();
+    try (Stream<Path> files = Files.list(writer)) {
+      files.map(path -> path.getFileName().toString())
+          .filter(name -> name.startsWith("audit-"))
+          .sorted()
+          .forEach(names::add);
+    }
+    return names;
+  }
+
+  private static void writeEvents(Path directory, String message) throws Exception {
+    AuditLog auditLog = new AuditLog(new ObjectMapper(), directory.toString(), 1024,
+        AuditLog.FullPolicy.BLOCK, 16, 4096, 100);
+    auditLog.start();
+    for (int i = 0; i < 200; i++) {
+      auditLog.record(new AuditEvent(AuditEvent.LOGIN_FAILURE, i % 2 == 0 ? "admin" : "user",
+          "127.0.0.1", message + " " + i));
+    }
+    auditLog.close();
+  }
+}
@@ -0,0 +1,157 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.lind.webSecurity.config.LindAuthenticationProvider;
+import com.lind.webSecurity.config.LindCredentialCache;
+import com.lind.webSecurity.config.LindPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 第一个请求(leader)在密码校验中被GatedEncoder挡住，直到其余请求都在等待它的结果，
+ * 再放行并检查BCrypt只执行了一次，每个请求拿到自己的details和凭证.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "lind.throttle.enabled=false")
+public class CoalescedLoginTest {
+  private static final int CALLERS = 4;
+
+  @Autowired
+  private LindAuthenticationProvider lindAuthenticationProvider;
+  @Autowired
+  private LindCredentialCache lindCredentialCache;
+  @Autowired
+  private LindPasswordEncoder passwordEncoder;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private GatedEncoder gatedEncoder;
+  private ExecutorService pool;
+
+  @Before
+  public void init() {
+    gatedEncoder = new GatedEncoder(passwordEncoder);
+    ReflectionTestUtils.setField(lindAuthenticationProvider, "passwordEncoder", gatedEncoder);
+    lindCredentialCache.invalidateAll();
+    pool = Executors.newFixedThreadPool(CALLERS);
+  }
+
+  @After
+  public void restore() {
+    gatedEncoder.release.countDown();
+    pool.shutdownNow();
+    ReflectionTestUtils.setField(lindAuthenticationProvider, "passwordEncoder", passwordEncoder);
+  }
+
+  @Test
+  public void concurrentBadPasswordsShareOneCheck() throws Exception {
+    for (Future<Object> result : coalesce("admin", "wrong")) {
+      assertTrue(result.get() instanceof BadCredentialsException);
+    }
+    assertEquals(1, gatedEncoder.calls.get());
+  }
+
+  @Test
+  public void sharedResultUsesCallerToken() throws Exception {
+    List<UsernamePasswordAuthenticationToken> requests = new ArrayList<>();
+    List<Future<Object>> results = coalesce("user", "123", requests);
+    assertEquals(1, gatedEncoder.calls.get());
+    for (int i = 0; i < CALLERS; i++) {
+      Authentication result = (Authentication) results.get(i).get();
+      assertEquals("user", result.getName());
+      assertEquals("caller-" + i, result.getDetails());
+      assertSame(requests.get(i).getCredentials(), result.getCredentials());
+    }
+  }
+
+  private List<Future<Object>> coalesce(String username, String password) throws Exception {
+    return coalesce(username, password, new ArrayList<>());
+  }
+
+  /**
+   * 先发出leader并等它进入密码校验，再发出其余请求，等它们都开始等待leader后放行.
+   */
+  private List<Future<Object>> coalesce(String username, String password,
+                                        List<UsernamePasswordAuthenticationToken> requests)
+      throws Exception {
+    double coalesced = meterRegistry.counter("lind.auth.coalesced").count();
+    List<Future<Object>> results = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      // 每个请求使用不同的凭证实例，用来区分返回的是谁的凭证
+      UsernamePasswordAuthenticationToken request =
+          new UsernamePasswordAuthenticationToken(username, new String(password));
+      request.setDetails("caller-" + i);
+      requests.add(request);
+      results.add(pool.submit(() -> {
+        try {
+          return lindAuthenticationProvider.authenticate(request);
+        } catch (BadCredentialsException ex) {
+          return ex;
+        }
+      }));
+      if (i == 0) {
+        assertTrue(gatedEncoder.entered.await(10, TimeUnit.SECONDS));
+      }
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (meterRegistry.counter("lind.auth.coalesced").count() < coalesced + CALLERS - 1) {
+      assertTrue("waiters did not join the leader", System.nanoTime() < deadline);
+      Thread.sleep(10);
+    }
+    gatedEncoder.release.countDown();
+    return results;
+  }
+
+  /**
+   * 记录matches的调用次数，并在release之前阻塞.
+   */
+  private static final class GatedEncoder extends LindPasswordEncoder {
+    private final LindPasswordEncoder delegate;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private GatedEncoder(LindPasswordEncoder delegate) {
+      super(delegate.getStrength());
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      calls.incrementAndGet();
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+      return delegate.upgradeEncoding(encodedPassword);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.lind.webSecurity.session.CompactSecurityContextRepository;
+import com.lind.webSecurity.session.CompactSession;
+import com.lind.webSecurity.session.SecurityContextCodec;
+import com.lind.webSecurity.session.SlabSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.http.Cookie;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "lind.session.compact=true")
+public class CompactSessionTest {
+  protected MockMvc mockMvc;
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+  @Autowired
+  private SecurityContextCodec securityContextCodec;
+
+  @Before
+  public void init() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  @Test
+  public void loginStoresContextOutsideHttpSession() throws Exception {
+    MvcResult login = mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "123"))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertNull(login.getRequest().getSession(false));
+    Cookie cookie = login.getResponse().getCookie("LINDSESSION");
+    assertNotNull(cookie);
+    mockMvc.perform(get("/read").cookie(cookie)).andExpect(status().isOk());
+    mockMvc.perform(get("/admin/product").cookie(cookie)).andExpect(status().isOk());
+  }
+
+  @Test
+  public void loginIssuesNewSessionId() throws Exception {
+    Cookie userCookie = mockMvc
+        .perform(get("/login").param("username", "user").param("password", "123"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getCookie("LINDSESSION");
+    mockMvc.perform(get("/admin/product").cookie(userCookie)).andExpect(status().isForbidden());
+
+    // 带着已有的cookie登录另一个用户，旧的会话id不能变成admin
+    Cookie adminCookie = mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "123")
+            .cookie(userCookie))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getCookie("LINDSESSION");
+    assertNotNull(adminCookie);
+    assertNotEquals(userCookie.getValue(), adminCookie.getValue());
+    mockMvc.perform(get("/admin/product").cookie(adminCookie)).andExpect(status().isOk());
+    mockMvc.perform(get("/admin/product").cookie(userCookie))
+        .andExpect(status().is3xxRedirection());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedWhenFull() {
+    SlabSessionRepository repository =
+        new SlabSessionRepository(new SimpleMeterRegistry(), true, 16, 64, 64, 1800, 1);
+    CompactSession first = save(repository, new byte[25]);
+    CompactSession second = save(repository, new byte[20]);
+    assertEquals(20, repository.findById(second.getId()).getData().length);
+    save(repository, new byte[10]);
+    assertNull(repository.findById(first.getId()));
+    assertNotNull(repository.findById(second.getId()));
+    assertEquals(1, repository.getEvictions());
+  }
+
+  @Test
+  public void shardedRepositoryFindsEverySession() {
+    SlabSessionRepository repository =
+        new SlabSessionRepository(new SimpleMeterRegistry(), false, 32, 1024, 16384, 1800, 4);
+    List<CompactSession> sessions = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      sessions.add(save(repository, new byte[] {(byte) i}));
+    }
+    assertEquals(64, repository.getSessionCount());
+    for (int i = 0; i < 64; i++) {
+      assertEquals(i, repository.findById(sessions.get(i).getId()).getData()[0]);
+    }
+    repository.deleteById(sessions.get(0).getId());
+    assertNull(repository.findById(sessions.get(0).getId()));
+    assertEquals(63 * 32, repository.getUsedBytes());
+  }
+
+  @Test
+  public void containsContextReusesLoadedSession() {
+    AtomicInteger lookups = new AtomicInteger();
+    SlabSessionRepository sessions =
+        new SlabSessionRepository(new SimpleMeterRegistry(), false, 64, 1024, 16384, 1800, 1) {
+          @Override
+          public CompactSession findById(String id) {
+            lookups.incrementAndGet();
+            return super.findById(id);
+          }
+        };
+    CompactSecurityContextRepository repository =
+        new CompactSecurityContextRepository(sessions, securityContextCodec);
+    ReflectionTestUtils.setField(repository, "cookieName", "LINDSESSION");
+    CompactSession session = save(sessions, new byte[] {1});
+
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setCookies(new Cookie("LINDSESSION", session.getId()));
+    repository.loadContext(new HttpRequestResponseHolder(request, new MockHttpServletResponse()));
+    assertTrue(repository.containsContext(request));
+    // loadContext已经查过一次，containsContext不再访问仓库
+    assertEquals(1, lookups.get());
+  }
+
+  private static CompactSession save(SlabSessionRepository repository, byte[] data) {
+    CompactSession session = repository.createSession();
+    session.setData(data);
+    repository.save(session);
+    return session;
+  }
+}
@@ -0,0 +1,46 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.lind.webSecurity.config.LindAuthenticationProvider;
+import com.lind.webSecurity.startup.StartupReport;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("fast")
+public class FastStartupTest {
+  @Autowired
+  private ConfigurableListableBeanFactory beanFactory;
+  @Autowired
+  private StartupReport startupReport;
+
+  @Test
+  public void onlyLoginPathCreatedAtStartup() {
+    assertTrue(beanFactory.containsSingleton("lindAuthenticationProvider"));
+    assertTrue(beanFactory.containsSingleton("lindAuthenticationSuccessHandler"));
+    assertFalse(beanFactory.containsSingleton("thymeleafViewResolver"));
+    assertFalse(beanFactory.containsSingleton("springSecurityFilterChain"));
+
+    // 第一次使用时创建
+    LindAuthenticationProvider provider = beanFactory.getBean(LindAuthenticationProvider.class);
+    assertTrue(provider.authenticate(
+        new UsernamePasswordAuthenticationToken("admin", "123")).isAuthenticated());
+  }
+
+  @Test
+  public void startupReportRecordsPhasesAndBeans() {
+    assertTrue(startupReport.getPhases().containsKey("refresh"));
+    assertTrue(startupReport.getBeanCount() > 0);
+    assertEquals(5, startupReport.getSlowestBeans(5).size());
+  }
+}
@@ -0,0 +1,65 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.lind.webSecurity.config.FilterChainProfiler;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "lind.filter-profile.enabled=true")
+public class FilterChainProfileTest {
+  protected MockMvc mockMvc;
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+  @Autowired
+  private FilterChainProfiler filterChainProfiler;
+
+  @Before
+  public void init() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  @Test
+  public void publicRoutesUseMinimalChain() throws Exception {
+    MockHttpServletRequest request = mockMvc.perform(get("/index"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+        .andReturn().getRequest();
+    // 完整的链中CsrfFilter会为匿名请求创建session
+    assertNull(request.getSession(false));
+
+    Map<String, ?> filters = filterChainProfiler.snapshot().get("/index");
+    assertEquals(Collections.singleton("HeaderWriterFilter"), filters.keySet());
+  }
+
+  @Test
+  public void profilerRecordsFiltersPerRoute() throws Exception {
+    mockMvc.perform(get("/hello").with(user("admin").roles("ADMIN")))
+        .andExpect(status().isOk());
+
+    Map<String, ?> filters = filterChainProfiler.snapshot().get("/**");
+    assertTrue(filters.containsKey("CsrfFilter"));
+    assertTrue(filters.containsKey("LindUserNameAuthenticationFilter"));
+    assertTrue(filters.containsKey("FilterSecurityInterceptor"));
+  }
+}
@@ -1,6 +1,8 @@
 package com.lind.webSecurity;
 
+import static org.junit.Assert.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import org.junit.Before;
@@ -37,6 +39,31 @@ public class HomeControllerTest {
         .andExpect(status().isOk());
   }
 
+  @Test
+  public void indexNotModified() throws Exception {
+    String etag = mockMvc
+        .perform(get("/index"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "private, no-cache"))
+        .andReturn().getResponse().getHeader("ETag");
+    mockMvc
+        .perform(get("/index").header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  public void indexCachedOncePerView() throws Exception {
+    String etag = mockMvc
+        .perform(get("/index").header("Accept-Language", "fr-FR"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+    // 客户端的locale不会产生新的缓存项
+    assertEquals(etag, mockMvc
+        .perform(get("/index").header("Accept-Language", "de-CH"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag"));
+  }
+
   @Test
   public void hello() throws Exception {
     mockMvc
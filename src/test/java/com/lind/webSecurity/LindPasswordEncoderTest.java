@@ -0,0 +1,27 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.lind.webSecurity.config.LindPasswordEncoder;
+import org.junit.Test;
+
+public class LindPasswordEncoderTest {
+
+  @Test
+  public void upgradeEncoding() {
+    LindPasswordEncoder current = new LindPasswordEncoder(5);
+    LindPasswordEncoder old = new LindPasswordEncoder(4);
+    assertFalse(current.upgradeEncoding(current.encode("123")));
+    assertTrue(current.upgradeEncoding(old.encode("123")));
+    assertFalse(current.upgradeEncoding(null));
+  }
+
+  @Test
+  public void calibrateRespectsBounds() {
+    LindPasswordEncoder encoder = LindPasswordEncoder.calibrate(0, 4, 6);
+    assertEquals(4, encoder.getStrength());
+    assertTrue(encoder.matches("123", encoder.encode("123")));
+  }
+}
@@ -0,0 +1,107 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.lind.webSecurity.config.LindCredentialCache;
+import com.lind.webSecurity.user.UsernameBloomFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class LoginTest {
+  protected MockMvc mockMvc;
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+  @Autowired
+  private LindCredentialCache lindCredentialCache;
+  @Autowired
+  private UsernameBloomFilter usernameBloomFilter;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Before
+  public void init() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  @Test
+  public void loginSuccess() throws Exception {
+    mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "123"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message").value("success"));
+  }
+
+  @Test
+  public void loginBadPassword() throws Exception {
+    mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "456"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void loginUnknownUser() throws Exception {
+    mockMvc
+        .perform(get("/login").param("username", "nobody").param("password", "123"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void unknownUserRejectedByBloomFilter() throws Exception {
+    assertTrue(usernameBloomFilter.mightContain("admin"));
+    double rejected = meterRegistry.counter("lind.user-bloom.rejected").count();
+    mockMvc
+        .perform(get("/login").param("username", "nobody").param("password", "123"))
+        .andExpect(status().isUnauthorized());
+    assertTrue(meterRegistry.counter("lind.user-bloom.rejected").count() > rejected);
+  }
+
+  @Test
+  public void repeatLoginSkipsPasswordEncoder() throws Exception {
+    long hits = lindCredentialCache.stats().hitCount();
+    for (int i = 0; i < 2; i++) {
+      mockMvc
+          .perform(get("/login").param("username", "user").param("password", "123"))
+          .andExpect(status().isOk());
+    }
+    assertTrue(lindCredentialCache.stats().hitCount() > hits);
+  }
+
+  @Test
+  public void authStagesEndpoint() throws Exception {
+    MockHttpSession session = (MockHttpSession) mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "123"))
+        .andExpect(status().isOk())
+        .andReturn().getRequest().getSession();
+    mockMvc
+        .perform(get("/actuator/authstages").session(session))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.password-check.count").isNumber())
+        .andExpect(jsonPath("$.success-handler.p99").isNumber());
+
+    // 普通用户不能读取监控端点
+    MockHttpSession userSession = (MockHttpSession) mockMvc
+        .perform(get("/login").param("username", "user").param("password", "123"))
+        .andExpect(status().isOk())
+        .andReturn().getRequest().getSession();
+    mockMvc
+        .perform(get("/actuator/authstages").session(userSession))
+        .andExpect(status().isForbidden());
+  }
+}
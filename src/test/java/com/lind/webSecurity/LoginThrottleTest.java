@@ -0,0 +1,49 @@
+package com.lind.webSecurity;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "lind.throttle.username.burst=2",
+    "lind.throttle.username.per-minute=1"})
+public class LoginThrottleTest {
+  protected MockMvc mockMvc;
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  @Before
+  public void init() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  @Test
+  public void throttleByUsername() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      mockMvc
+          .perform(get("/login").param("username", "admin").param("password", "456"))
+          .andExpect(status().isUnauthorized());
+    }
+    mockMvc
+        .perform(get("/login").param("username", "admin").param("password", "123"))
+        .andExpect(status().is(429))
+        .andExpect(header().exists("Retry-After"));
+    mockMvc
+        .perform(get("/login").param("username", "user").param("password", "123"))
+        .andExpect(status().isOk());
+  }
+}
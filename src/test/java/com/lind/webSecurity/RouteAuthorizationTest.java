@@ -0,0 +1,97 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.lind.webSecurity.config.RouteAuthorizationTrie;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class RouteAuthorizationTest {
+  protected MockMvc mockMvc;
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+
+  @Before
+  public void init() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  @Test
+  public void firstMatchWins() {
+    RouteAuthorizationTrie trie = new RouteAuthorizationTrie()
+        .permitAll("/admin/public")
+        .hasRole("ADMIN", "/admin/**")
+        .rule(new String[] {"/*/items"}, "ROLE_ITEMS")
+        .authenticated("/**");
+    assertEquals("IS_AUTHENTICATED_ANONYMOUSLY", first(trie, "/admin/public"));
+    assertEquals("ROLE_ADMIN", first(trie, "/admin"));
+    assertEquals("ROLE_ADMIN", first(trie, "/admin/items"));
+    assertEquals("ROLE_ITEMS", first(trie, "/shop/items"));
+    assertEquals("IS_AUTHENTICATED_REMEMBERED", first(trie, "/shop/items/1"));
+    assertEquals("IS_AUTHENTICATED_REMEMBERED", first(trie, "/"));
+    assertEquals("/*/items", trie.route("/shop/items"));
+    assertEquals("/**", trie.route("/shop/items/1"));
+  }
+
+  @Test
+  public void trailingSlashFollowsAntPathMatcher() {
+    RouteAuthorizationTrie trie = new RouteAuthorizationTrie().permitAll("/", "/index");
+    assertEquals("IS_AUTHENTICATED_ANONYMOUSLY", first(trie, "/"));
+    assertEquals("IS_AUTHENTICATED_ANONYMOUSLY", first(trie, "//index"));
+    assertNull(trie.match("/index/"));
+    assertNull(trie.match("/hello"));
+    assertNull(trie.route("/hello"));
+  }
+
+  @Test
+  public void permitAllIsNotShadowedByEarlierRules() {
+    RouteAuthorizationTrie trie = new RouteAuthorizationTrie()
+        .permitAll("/login")
+        .hasRole("ADMIN", "/public/admin/**", "/*/secret")
+        .permitAll("/public/**", "/docs/*", "/index")
+        .authenticated("/**");
+    assertTrue(trie.isPermitAll("/login"));
+    assertTrue(trie.isPermitAll("/index"));
+    assertFalse(trie.isPermitAll("/public/**"));
+    assertFalse(trie.isPermitAll("/docs/*"));
+    assertFalse(trie.isPermitAll("/**"));
+    assertFalse(trie.isPermitAll("/hello"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsInnerDoubleWildcard() {
+    new RouteAuthorizationTrie().permitAll("/**/static");
+  }
+
+  @Test
+  public void routes() throws Exception {
+    mockMvc.perform(get("/index")).andExpect(status().isOk());
+    mockMvc.perform(get("/read")).andExpect(status().is3xxRedirection());
+    mockMvc.perform(get("/admin/product").with(user("user").roles("USER")))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(get("/admin/product").with(user("admin").roles("ADMIN")))
+        .andExpect(status().isOk());
+  }
+
+  private static String first(RouteAuthorizationTrie trie, String path) {
+    return trie.match(path).iterator().next().getAttribute();
+  }
+}
@@ -0,0 +1,58 @@
+package com.lind.webSecurity;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lind.webSecurity.config.LindTokenService;
+import com.lind.webSecurity.user.AuthorityRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "lind.token.enabled=true")
+public class TokenLoginTest {
+  protected MockMvc mockMvc;
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Before
+  public void init() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  @Test
+  public void tokenAuthentication() throws Exception {
+    String body = mockMvc
+        .perform(get("/login").param("username", "user").param("password", "123"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.token").isNotEmpty())
+        .andReturn().getResponse().getContentAsString();
+    String token = objectMapper.readTree(body).get("token").asText();
+
+    mockMvc
+        .perform(get("/read").header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(get("/read").header("Authorization", "Bearer " + token + "x"))
+        .andExpect(status().is3xxRedirection());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsSecretThatIsNotBase64() {
+    new LindTokenService(new AuthorityRegistry(), "not base64!", 3600, 100);
+  }
+}
@@ -0,0 +1,89 @@
+package com.lind.webSecurity;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.lind.webSecurity.config.LindPrincipalJsonCache;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UserControllerTest {
+  protected MockMvc mockMvc;
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+  @Autowired
+  private LindPrincipalJsonCache lindPrincipalJsonCache;
+
+  @Before
+  public void init() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+        .apply(springSecurity())
+        .build();
+  }
+
+  private MockHttpSession login(String username) throws Exception {
+    return (MockHttpSession) mockMvc
+        .perform(get("/login").param("username", username).param("password", "123"))
+        .andExpect(status().isOk())
+        .andReturn().getRequest().getSession();
+  }
+
+  @Test
+  public void storedUserAuthorities() throws Exception {
+    MockHttpSession admin = login("admin");
+    mockMvc.perform(get("/read").session(admin)).andExpect(status().isOk());
+    mockMvc.perform(get("/read-or-write").session(admin)).andExpect(status().isOk());
+    mockMvc.perform(get("/write").session(admin)).andExpect(status().isForbidden());
+    // hasRole('admin')对应ROLE_admin，区分大小写
+    mockMvc.perform(get("/admin-role").session(admin)).andExpect(status().isForbidden());
+    mockMvc.perform(get("/user-role").session(admin)).andExpect(status().isForbidden());
+
+    MockHttpSession user = login("user");
+    mockMvc.perform(get("/user-role").session(user)).andExpect(status().isOk());
+  }
+
+  @Test
+  public void currentUserJsonFollowsAuthorities() throws Exception {
+    MockHttpSession admin = login("admin");
+    lindPrincipalJsonCache.invalidateAll();
+    long hits = lindPrincipalJsonCache.stats().hitCount();
+    for (int i = 0; i < 2; i++) {
+      mockMvc.perform(get("/auth").session(admin))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.username").value("admin"))
+          .andExpect(jsonPath("$.password").doesNotExist());
+    }
+    // 第二次请求直接用缓存的json
+    assertEquals(hits + 1, lindPrincipalJsonCache.stats().hitCount());
+    // 同名但权限不同，版本号不同，不能命中
+    mockMvc.perform(get("/auth").with(user("admin").authorities(() -> "write")))
+        .andExpect(jsonPath("$.authorities[0].authority").value("write"));
+    assertEquals(hits + 1, lindPrincipalJsonCache.stats().hitCount());
+  }
+
+  @Test
+  public void otherPrincipalAuthorities() throws Exception {
+    mockMvc.perform(get("/write").with(user("zzl").authorities(
+        () -> "write"))).andExpect(status().isOk());
+    mockMvc.perform(get("/read-or-write").with(user("zzl").authorities(
+        () -> "write"))).andExpect(status().isOk());
+    mockMvc.perform(get("/admin-role").with(user("zzl").roles("admin")))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/read").with(user("zzl").roles("USER")))
+        .andExpect(status().isForbidden());
+  }
+}
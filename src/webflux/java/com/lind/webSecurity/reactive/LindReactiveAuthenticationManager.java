@@ -0,0 +1,64 @@
+package com.lind.webSecurity.reactive;
+
+import com.lind.webSecurity.config.AuthMetrics;
+import com.lind.webSecurity.config.LindAuthenticationProvider;
+import com.lind.webSecurity.config.LindHashingExecutor;
+import com.lind.webSecurity.config.LoginThrottledException;
+import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+/**
+ * 把LindAuthenticationProvider包装成ReactiveAuthenticationManager.
+ * 认证(包括BCrypt校验)在LindHashingExecutor上执行，event loop线程只负责收发；
+ * 线程池队列满时转换成LoginThrottledException，由失败handler返回429.
+ */
+public class LindReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+  private final AuthenticationManager authenticationManager;
+  private final LindHashingExecutor hashingExecutor;
+  private final AuthMetrics authMetrics;
+  private final long retryAfterSeconds;
+
+  public LindReactiveAuthenticationManager(LindAuthenticationProvider provider,
+                                           LindHashingExecutor hashingExecutor,
+                                           AuthMetrics authMetrics,
+                                           long retryAfterSeconds) {
+    // 和servlet版本一样经过ProviderManager，认证成功后擦除凭证
+    this.authenticationManager = new ProviderManager(Collections.singletonList(provider));
+    this.hashingExecutor = hashingExecutor;
+    this.authMetrics = authMetrics;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  @Override
+  public Mono<Authentication> authenticate(Authentication authentication) {
+    if (authentication.getPrincipal() == null) {
+      return Mono.error(new InternalAuthenticationServiceException("Failed to get the username"));
+    }
+    if (authentication.getCredentials() == null) {
+      return Mono.error(new InternalAuthenticationServiceException("Failed to get the password"));
+    }
+    // 直接提交到线程池：Schedulers.fromExecutor会把拒绝当作未捕获异常打印到event loop线程
+    return Mono.create(sink -> {
+      try {
+        hashingExecutor.execute(() -> {
+          long start = authMetrics.start(AuthMetrics.Stage.FILTER);
+          try {
+            sink.success(authenticationManager.authenticate(authentication));
+          } catch (RuntimeException ex) {
+            sink.error(ex);
+          } finally {
+            authMetrics.stop(AuthMetrics.Stage.FILTER, start);
+          }
+        });
+      } catch (RejectedExecutionException ex) {
+        sink.error(new LoginThrottledException("Too many login requests", retryAfterSeconds));
+      }
+    });
+  }
+}
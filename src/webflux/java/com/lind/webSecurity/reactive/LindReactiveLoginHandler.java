@@ -0,0 +1,91 @@
+package com.lind.webSecurity.reactive;
+
+import com.lind.webSecurity.audit.AuditEvent;
+import com.lind.webSecurity.audit.AuditLog;
+import com.lind.webSecurity.config.AuthMetrics;
+import com.lind.webSecurity.config.LindJsonResponseWriter;
+import com.lind.webSecurity.config.LoginThrottledException;
+import java.net.InetSocketAddress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.authentication.ServerAuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux登录的成功和失败处理，对应LindAuthenticationSuccessHandler和LindAuthenticationFailHandler.
+ * 响应体来自同一个LindJsonResponseWriter，内容和servlet版本一致.
+ */
+@Component
+public class LindReactiveLoginHandler
+    implements ServerAuthenticationSuccessHandler, ServerAuthenticationFailureHandler {
+  @Autowired
+  LindJsonResponseWriter lindJsonResponseWriter;
+
+  @Autowired
+  AuditLog auditLog;
+
+  @Autowired
+  AuthMetrics authMetrics;
+
+  @Override
+  public Mono<Void> onAuthenticationSuccess(WebFilterExchange webFilterExchange,
+                                            Authentication authentication) {
+    long start = authMetrics.start(AuthMetrics.Stage.SUCCESS_HANDLER);
+    try {
+      ServerHttpRequest request = webFilterExchange.getExchange().getRequest();
+      auditLog.record(new AuditEvent(AuditEvent.LOGIN_SUCCESS, authentication.getName(),
+          remoteAddress(request), null));
+      return write(webFilterExchange.getExchange().getResponse(), HttpStatus.OK,
+          lindJsonResponseWriter.successBody());
+    } finally {
+      authMetrics.stop(AuthMetrics.Stage.SUCCESS_HANDLER, start);
+      authMetrics.success();
+    }
+  }
+
+  @Override
+  public Mono<Void> onAuthenticationFailure(WebFilterExchange webFilterExchange,
+                                            AuthenticationException exception) {
+    long start = authMetrics.start(AuthMetrics.Stage.FAILURE_HANDLER);
+    try {
+      ServerHttpRequest request = webFilterExchange.getExchange().getRequest();
+      ServerHttpResponse response = webFilterExchange.getExchange().getResponse();
+      HttpStatus status = HttpStatus.UNAUTHORIZED;
+      if (exception instanceof LoginThrottledException) {
+        status = HttpStatus.TOO_MANY_REQUESTS;
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+            String.valueOf(((LoginThrottledException) exception).getRetryAfterSeconds()));
+      }
+      auditLog.record(new AuditEvent(AuditEvent.LOGIN_FAILURE,
+          request.getQueryParams().getFirst("username"), remoteAddress(request), exception.getMessage()));
+      return write(response, status, lindJsonResponseWriter.failureBody(exception));
+    } finally {
+      authMetrics.stop(AuthMetrics.Stage.FAILURE_HANDLER, start);
+      authMetrics.failure(exception);
+    }
+  }
+
+  private static Mono<Void> write(ServerHttpResponse response, HttpStatus status,
+                                  LindJsonResponseWriter.JsonBody body) {
+    response.setStatusCode(status);
+    response.getHeaders().set(HttpHeaders.CONTENT_TYPE, LindJsonResponseWriter.CONTENT_TYPE);
+    response.getHeaders().setContentLength(body.length());
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes())));
+  }
+
+  private static String remoteAddress(ServerHttpRequest request) {
+    InetSocketAddress address = request.getRemoteAddress();
+    if (address == null) {
+      return null;
+    }
+    return address.getAddress() == null ? address.getHostString() : address.getAddress().getHostAddress();
+  }
+}
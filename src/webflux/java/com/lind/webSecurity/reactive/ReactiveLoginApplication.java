@@ -0,0 +1,55 @@
+package com.lind.webSecurity.reactive;
+
+import com.lind.webSecurity.audit.AuditLog;
+import com.lind.webSecurity.config.AuthMetrics;
+import com.lind.webSecurity.config.LindAuthenticationProvider;
+import com.lind.webSecurity.config.LindCredentialCache;
+import com.lind.webSecurity.config.LindHashingExecutor;
+import com.lind.webSecurity.config.LindJsonResponseWriter;
+import com.lind.webSecurity.config.LindPasswordUpgrader;
+import com.lind.webSecurity.config.LindUserCache;
+import com.lind.webSecurity.config.LoginThrottle;
+import com.lind.webSecurity.config.MyUserDetailService;
+import com.lind.webSecurity.user.AuthorityRegistry;
+import com.lind.webSecurity.user.UserStore;
+import com.lind.webSecurity.user.UsernameBloomFilter;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 可选的WebFlux登录服务，提供和servlet版本相同的GET /login接口.
+ * 不扫描com.lind.webSecurity，只导入认证需要的组件，servlet的filter、handler和controller都不会加载.
+ * 运行：gradlew bootRunWebflux
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableScheduling
+@Import({
+    ReactiveSecurityConfig.class,
+    LindReactiveLoginHandler.class,
+    UserStore.class,
+    UsernameBloomFilter.class,
+    AuthorityRegistry.class,
+    MyUserDetailService.class,
+    LindAuthenticationProvider.class,
+    LindUserCache.class,
+    LindCredentialCache.class,
+    LindPasswordUpgrader.class,
+    LoginThrottle.class,
+    LindHashingExecutor.class,
+    AuthMetrics.class,
+    LindJsonResponseWriter.class,
+    AuditLog.class})
+public class ReactiveLoginApplication {
+
+  public static void main(String[] args) {
+    // classpath上同时有spring-webmvc，需要显式指定REACTIVE
+    new SpringApplicationBuilder(ReactiveLoginApplication.class)
+        .web(WebApplicationType.REACTIVE)
+        .run(args);
+  }
+}
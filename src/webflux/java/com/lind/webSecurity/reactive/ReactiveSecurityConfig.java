@@ -0,0 +1,95 @@
+package com.lind.webSecurity.reactive;
+
+import com.lind.webSecurity.config.AuthMetrics;
+import com.lind.webSecurity.config.LindAuthenticationProvider;
+import com.lind.webSecurity.config.LindHashingExecutor;
+import com.lind.webSecurity.config.LindPasswordEncoder;
+import com.lind.webSecurity.config.WebSecurityConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux版本的安全配置，路由授权规则来自WebSecurityConfig.routeRules()，和servlet版本相同.
+ * GET /login?username=zzl&password=123456由AuthenticationWebFilter处理，登录状态保存在WebSession中.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+  /**
+   * 和servlet版本使用同样的BCrypt强度配置.
+   */
+  @Bean
+  public static LindPasswordEncoder passwordEncoder(
+      @Value("${lind.bcrypt.calibrate:true}") boolean calibrate,
+      @Value("${lind.bcrypt.strength:10}") int strength,
+      @Value("${lind.bcrypt.latency-budget-ms:250}") long latencyBudget,
+      @Value("${lind.bcrypt.min-strength:10}") int minStrength,
+      @Value("${lind.bcrypt.max-strength:16}") int maxStrength) {
+    return WebSecurityConfig.passwordEncoder(calibrate, strength, latencyBudget, minStrength, maxStrength);
+  }
+
+  /**
+   * classpath上还有tomcat，显式使用netty，少量event loop线程即可处理大量连接.
+   */
+  @Bean
+  NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  @Bean
+  LindReactiveAuthenticationManager reactiveAuthenticationManager(
+      LindAuthenticationProvider lindAuthenticationProvider,
+      LindHashingExecutor lindHashingExecutor,
+      AuthMetrics authMetrics,
+      @Value("${lind.login.retry-after-seconds:1}") long retryAfterSeconds) {
+    return new LindReactiveAuthenticationManager(lindAuthenticationProvider, lindHashingExecutor,
+        authMetrics, retryAfterSeconds);
+  }
+
+  @Bean
+  SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http,
+                                                   LindReactiveAuthenticationManager authenticationManager,
+                                                   LindReactiveLoginHandler lindReactiveLoginHandler) {
+    WebSessionServerSecurityContextRepository securityContextRepository =
+        new WebSessionServerSecurityContextRepository();
+    AuthenticationWebFilter loginFilter = new AuthenticationWebFilter(authenticationManager);
+    loginFilter.setRequiresAuthenticationMatcher(
+        ServerWebExchangeMatchers.pathMatchers(HttpMethod.GET, "/login"));
+    loginFilter.setServerAuthenticationConverter(exchange -> {
+      MultiValueMap<String, String> params = exchange.getRequest().getQueryParams();
+      UsernamePasswordAuthenticationToken authRequest = new UsernamePasswordAuthenticationToken(
+          params.getFirst("username"), params.getFirst("password"));
+      authRequest.setDetails(exchange.getRequest().getRemoteAddress());
+      return Mono.just(authRequest);
+    });
+    loginFilter.setAuthenticationSuccessHandler(lindReactiveLoginHandler);
+    loginFilter.setAuthenticationFailureHandler(lindReactiveLoginHandler);
+    loginFilter.setSecurityContextRepository(securityContextRepository);
+
+    return http
+        .authorizeExchange()
+        .anyExchange().access(new RouteReactiveAuthorizationManager(WebSecurityConfig.routeRules()))
+        .and()
+        .addFilterAt(loginFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+        .securityContextRepository(securityContextRepository)
+        .exceptionHandling()
+        .authenticationEntryPoint(new RedirectServerAuthenticationEntryPoint("/login"))
+        .and()
+        .build();
+  }
+}
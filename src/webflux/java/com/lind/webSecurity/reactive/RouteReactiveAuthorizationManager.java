@@ -0,0 +1,61 @@
+package com.lind.webSecurity.reactive;
+
+import com.lind.webSecurity.config.RouteAuthorizationTrie;
+import java.util.Arrays;
+import java.util.Collection;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.access.vote.AuthenticatedVoter;
+import org.springframework.security.access.vote.RoleVoter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * 按RouteAuthorizationTrie授权WebFlux请求，规则和投票器都和servlet版本(WebSecurityConfig)相同.
+ * 5.1的ServerHttpSecurity没有匿名认证，未登录的请求用匿名token参与投票；
+ * 没有匹配的规则时放行，与FilterSecurityInterceptor默认的行为一致.
+ */
+public class RouteReactiveAuthorizationManager
+    implements ReactiveAuthorizationManager<AuthorizationContext> {
+  private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken(
+      "lind-reactive", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+  private final RouteAuthorizationTrie trie;
+  private final AccessDecisionManager accessDecisionManager =
+      new AffirmativeBased(Arrays.asList(new RoleVoter(), new AuthenticatedVoter()));
+
+  public RouteReactiveAuthorizationManager(RouteAuthorizationTrie trie) {
+    this.trie = trie;
+  }
+
+  @Override
+  public Mono<AuthorizationDecision> check(Mono<Authentication> authentication,
+                                           AuthorizationContext context) {
+    String path = context.getExchange().getRequest().getPath().pathWithinApplication().value();
+    Collection<ConfigAttribute> attributes = trie.match(path);
+    if (attributes == null) {
+      return Mono.just(new AuthorizationDecision(true));
+    }
+    return authentication
+        .filter(Authentication::isAuthenticated)
+        .defaultIfEmpty(ANONYMOUS)
+        .map(user -> new AuthorizationDecision(decide(user, context, attributes)));
+  }
+
+  private boolean decide(Authentication user, AuthorizationContext context,
+                         Collection<ConfigAttribute> attributes) {
+    try {
+      accessDecisionManager.decide(user, context, attributes);
+      return true;
+    } catch (AccessDeniedException ex) {
+      return false;
+    }
+  }
+}
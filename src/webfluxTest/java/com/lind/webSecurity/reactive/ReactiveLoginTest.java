@@ -0,0 +1,93 @@
+package com.lind.webSecurity.reactive;
+
+import static org.junit.Assert.assertTrue;
+
+import com.lind.webSecurity.config.LindHashingExecutor;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * WebFlux登录服务(ReactiveLoginApplication)的GET /login和路由授权.
+ * 校验线程池只有一个线程和一个队列位置，便于构造队列已满的场景.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ReactiveLoginApplication.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.main.web-application-type=reactive",
+        "lind.login.hashing-threads=1",
+        "lind.login.queue-capacity=1",
+        "lind.throttle.enabled=false"})
+public class ReactiveLoginTest {
+  @Autowired
+  private WebTestClient webTestClient;
+  @Autowired
+  private LindHashingExecutor lindHashingExecutor;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void drain() throws Exception {
+    release.countDown();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while ((lindHashingExecutor.getActiveCount() > 0 || lindHashingExecutor.getQueueDepth() > 0)
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void loginSuccess() {
+    webTestClient.get().uri("/login?username=admin&password=123")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$.message").isEqualTo("success");
+  }
+
+  @Test
+  public void loginFailure() {
+    webTestClient.get().uri("/login?username=admin&password=456")
+        .exchange()
+        .expectStatus().isUnauthorized();
+  }
+
+  @Test
+  public void queueFullRejectedWith429() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    lindHashingExecutor.execute(() -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    // 占满唯一的队列位置
+    lindHashingExecutor.execute(() -> {
+    });
+    webTestClient.get().uri("/login?username=admin&password=123")
+        .exchange()
+        .expectStatus().isEqualTo(429)
+        .expectHeader().valueEquals("Retry-After", "1");
+  }
+
+  @Test
+  public void routesFollowServletRules() {
+    webTestClient.get().uri("/admin/product")
+        .exchange()
+        .expectStatus().is3xxRedirection()
+        .expectHeader().valueEquals("Location", "/login");
+    // 公开页面放行，WebFlux服务没有这个页面
+    webTestClient.get().uri("/index")
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+}